@@ -0,0 +1,264 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * AllDifferent: generalized arc consistency for the AllDifferent
+ * constraints of a network, by Regin's matching algorithm. The meetings of
+ * a constraint and the days in their domains form a bipartite graph, and the
+ * constraint can be satisfied exactly when some matching in it covers every
+ * meeting. A day is then pruned from a meeting's domain exactly when no such
+ * matching pairs the two, which is found from one matching M:
+ * <ul>
+ *   <li>Meeting i points to meeting j when i's domain contains the day M
+ *       gives j, i.e. when i could take j's day if j moved elsewhere.</li>
+ *   <li>i can take j's day if j can get to a day M leaves free by following
+ *       these pointers, or else get back to i (so that every meeting on the
+ *       way moves one step), i.e. if i and j are in the same strongly
+ *       connected component.</li>
+ * </ul>
+ * The matching of each constraint is kept between calls and repaired by
+ * augmenting paths, as a few assignments or prunings usually break only a
+ * few of its pairs, and one call costs time linear in the total size of
+ * the constraint's domains beyond that.
+ */
+final class AllDifferent {
+
+    private final ConstraintNetwork network;
+
+    /** Day matched to each meeting of each constraint, or -1 */
+    private final int[][] matching;
+
+    // Position of the meeting each day is matched to, within the constraint
+    // being propagated; a day is matched only if its ownerStamp is that of
+    // the current call, and visited during the current augmenting path
+    // search only if its visitStamp is that search's
+    private final int[] owner;
+    private final int[] ownerStamp;
+    private final int[] visitStamp;
+    private int stamp;
+
+    // Depth-first search over positions in the constraint, shared by the
+    // augmenting path search and Tarjan's algorithm: the position at each
+    // level, the day it was left by, and the next day to scan there
+    private final int[] stack;
+    private final int[] via;
+    private final int[] cursor;
+
+    // Tarjan's algorithm: visit order, lowlink, its stack, and the component
+    // of each position, numbered in the order the components were completed,
+    // i.e. every pointer leads to the same component or an earlier one; and
+    // the positions sorted by component
+    private final int[] index;
+    private final int[] low;
+    private final int[] sccStack;
+    private final boolean[] onStack;
+    private final int[] component;
+    private final int[] order;
+
+    /** Whether each component can reach a day the matching leaves free */
+    private final boolean[] reachesFree;
+
+    // Meetings whose domains the last propagate() shrank
+    private final int[] changed;
+    private int nChanged;
+
+    AllDifferent (ConstraintNetwork network) {
+        this.network = network;
+        int largest = 0;
+        matching = new int[network.allDiffCount()][];
+        for (int c = 0; c < matching.length; c++) {
+            matching[c] = new int[network.allDiffVars[c].length];
+            Arrays.fill(matching[c], -1);
+            largest = Math.max(largest, matching[c].length);
+        }
+        owner = new int[network.width];
+        ownerStamp = new int[network.width];
+        visitStamp = new int[network.width];
+        stack = new int[largest];
+        via = new int[largest];
+        cursor = new int[largest];
+        index = new int[largest];
+        low = new int[largest];
+        sccStack = new int[largest];
+        component = new int[largest];
+        order = new int[largest];
+        onStack = new boolean[largest];
+        reachesFree = new boolean[largest];
+        changed = new int[largest];
+    }
+
+    /**
+     * Removes every day from the domains of the given constraint's meetings
+     * that no solution of the constraint gives them.
+     * @param c Index of the constraint in the network
+     * @return false if the constraint cannot be satisfied
+     */
+    boolean propagate (int c, DateDomain[] domains) {
+        nChanged = 0;
+        int[] vars = network.allDiffVars[c];
+        int[] match = matching[c];
+        int round = ++stamp;
+        for (int i = 0; i < vars.length; i++) {
+            int day = match[i];
+            if (day != -1 && domains[vars[i]].contains(day) && ownerStamp[day] != round) {
+                ownerStamp[day] = round;
+                owner[day] = i;
+            } else {
+                match[i] = -1;
+            }
+        }
+        for (int i = 0; i < vars.length; i++) {
+            if (match[i] == -1 && !augment(vars, match, domains, i, round)) {
+                return false;
+            }
+        }
+        findComponents(vars, match, domains, round);
+        prune(vars, match, domains, round);
+        return true;
+    }
+
+    /**
+     * @return The number of meetings whose domains the last propagate() shrank
+     */
+    int changedCount () {
+        return nChanged;
+    }
+
+    /**
+     * @param i Index below changedCount()
+     * @return A meeting whose domain the last propagate() shrank
+     */
+    int changed (int i) {
+        return changed[i];
+    }
+
+    /**
+     * Matches the meeting at the given position by an augmenting path: a
+     * chain of meetings, each taking the day of the next, ending in one that
+     * takes a free day.
+     * @return false if there is no augmenting path, i.e. no matching covers
+     *         every meeting
+     */
+    private boolean augment (int[] vars, int[] match, DateDomain[] domains, int root, int round) {
+        int seen = ++stamp;
+        int top = 0;
+        stack[0] = root;
+        cursor[0] = 0;
+        while (top >= 0) {
+            DateDomain domain = domains[vars[stack[top]]];
+            int day = domain.next(cursor[top]);
+            while (day != -1 && visitStamp[day] == seen) {
+                day = domain.next(day + 1);
+            }
+            if (day == -1) {
+                top--;
+                continue;
+            }
+            cursor[top] = day + 1;
+            visitStamp[day] = seen;
+            if (ownerStamp[day] == round) {
+                via[top] = day;
+                stack[++top] = owner[day];
+                cursor[top] = 0;
+                continue;
+            }
+            ownerStamp[day] = round;
+            via[top] = day;
+            for (int level = top; level >= 0; level--) {
+                match[stack[level]] = via[level];
+                owner[via[level]] = stack[level];
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Tarjan's algorithm over the pointers between meetings, iteratively so
+     * that large constraints cannot overflow the call stack.
+     */
+    private void findComponents (int[] vars, int[] match, DateDomain[] domains, int round) {
+        Arrays.fill(index, 0, vars.length, -1);
+        int visits = 0;
+        int completed = 0;
+        int components = 0;
+        int sccTop = 0;
+        for (int root = 0; root < vars.length; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int top = 0;
+            stack[0] = root;
+            cursor[0] = 0;
+            index[root] = low[root] = visits++;
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+            while (top >= 0) {
+                int i = stack[top];
+                int day = domains[vars[i]].next(cursor[top]);
+                if (day != -1) {
+                    cursor[top] = day + 1;
+                    if (ownerStamp[day] != round || day == match[i]) {
+                        continue;
+                    }
+                    int j = owner[day];
+                    if (index[j] == -1) {
+                        index[j] = low[j] = visits++;
+                        sccStack[sccTop++] = j;
+                        onStack[j] = true;
+                        stack[++top] = j;
+                        cursor[top] = 0;
+                    } else if (onStack[j]) {
+                        low[i] = Math.min(low[i], index[j]);
+                    }
+                    continue;
+                }
+                if (low[i] == index[i]) {
+                    int j;
+                    do {
+                        j = sccStack[--sccTop];
+                        onStack[j] = false;
+                        component[j] = components;
+                        order[completed++] = j;
+                    } while (j != i);
+                    reachesFree[components++] = false;
+                }
+                top--;
+                if (top >= 0) {
+                    low[stack[top]] = Math.min(low[stack[top]], low[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the days no matching covering every meeting gives them, going
+     * through the components sinks first so that whether each one reaches a
+     * free day is known before any component pointing into it is pruned.
+     */
+    private void prune (int[] vars, int[] match, DateDomain[] domains, int round) {
+        for (int k = 0; k < vars.length; k++) {
+            int i = order[k];
+            int own = component[i];
+            DateDomain domain = domains[vars[i]];
+            boolean shrank = false;
+            for (int day = domain.next(0); day != -1; day = domain.next(day + 1)) {
+                if (ownerStamp[day] != round) {
+                    reachesFree[own] = true;
+                } else if (day != match[i] && component[owner[day]] != own) {
+                    if (reachesFree[component[owner[day]]]) {
+                        reachesFree[own] = true;
+                    } else {
+                        domain.remove(day);
+                        shrank = true;
+                    }
+                }
+            }
+            if (shrank) {
+                changed[nChanged++] = vars[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * AllDifferentDateConstraints are those in which every one of a
+ * set of meeting variables must be on a different date, such as:
+ * alldiff 0 2 5
+ * This means the same as a "!=" BinaryDateConstraint between each
+ * pair of the meetings, but takes one constraint instead of a
+ * quadratic number of them, and is propagated as a whole, so it
+ * also prunes dates that pairwise "!=" cannot, e.g. three meetings
+ * confined to the same two days. It spans at least three meetings,
+ * so that its arity() is never that of a Unary or Binary constraint;
+ * two meetings are kept apart by a "!=" BinaryDateConstraint.
+ * L_VAL is the lowest of the meetings and OP is "!=".
+ */
+
+public class AllDifferentDateConstraint extends DateConstraint {
+
+    /** The constrained meeting indexes, in increasing order */
+    public final List<Integer> MEETINGS;
+
+    /**
+     * Constructs a new AllDifferentDateConstraint that requires the
+     * given meetings to be on pairwise different dates.
+     * @param meetings At least three distinct meeting variable indexes
+     */
+    AllDifferentDateConstraint (int... meetings) {
+        super(lowest(meetings), "!=");
+        int[] sorted = meetings.clone();
+        Arrays.sort(sorted);
+        List<Integer> list = new ArrayList<>(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Invalid variable index");
+            }
+            list.add(sorted[i]);
+        }
+
+        MEETINGS = Collections.unmodifiableList(list);
+    }
+
+    private static int lowest (int[] meetings) {
+        if (meetings.length < 3) {
+            throw new IllegalArgumentException("Invalid number of meetings");
+        }
+        int lowest = meetings[0];
+        for (int m : meetings) {
+            lowest = Math.min(lowest, m);
+        }
+        return lowest;
+    }
+
+    /**
+     * @return The number of meetings, which is always more than 2
+     */
+    @Override
+    public int arity () {
+        return MEETINGS.size();
+    }
+
+    /**
+     * Two AllDifferentDateConstraints are equal when they constrain the
+     * same meetings, in whatever order they were given.
+     */
+    @Override
+    public boolean equals (Object other) {
+        return other instanceof AllDifferentDateConstraint
+                && MEETINGS.equals(((AllDifferentDateConstraint) other).MEETINGS);
+    }
+
+    @Override
+    public int hashCode () {
+        return MEETINGS.hashCode();
+    }
+
+    @Override
+    public String toString () {
+        StringBuilder result = new StringBuilder("alldiff");
+        for (int m : MEETINGS) {
+            result.append(' ').append(m);
+        }
+        return result.toString();
+    }
+
+}
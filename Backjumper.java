@@ -0,0 +1,270 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * Backjumper: the bookkeeping for conflict-directed backjumping in a
+ * Search. Each depth of the search keeps a conflict set, the shallower
+ * depths whose assignments explain why its values failed:
+ * <ul>
+ *   <li>Without propagation, a value fails against the assigned variable of
+ *       the first constraint it violates.</li>
+ *   <li>With forward checking, a value fails by emptying a future variable's
+ *       domain, which is explained by every depth that pruned that domain,
+ *       so the depths pruning each variable are recorded as the search goes.
+ *       The values pruned from a variable before it is assigned are likewise
+ *       explained by the depths that pruned it.</li>
+ *   <li>A value fails against a learned nogood by the depths of the other
+ *       variables in it.</li>
+ * </ul>
+ * Once a depth runs out of values, the search jumps straight back to the
+ * deepest depth in its conflict set, which inherits the rest of the set,
+ * and the assignment of the set is learned as a nogood. Depths above a
+ * solution have had values succeed, which no conflict set explains, so
+ * they back up one depth at a time as in chronological backtracking.
+ * Depths are relative to the whole assignment; variables assigned before
+ * the search started are fixed for all of it and never appear in a set.
+ */
+final class Backjumper {
+
+    private final int startDepth;
+
+    /** Depth each variable was assigned at, or -1 */
+    private final int[] depthOf;
+
+    // Conflict set of each depth, possibly with duplicates until compacted
+    private final int[][] conflicts;
+    private final int[] conflictSize;
+
+    // Depths that must back up chronologically: every depth below
+    // chronologicalBelow, since a solution was found under them, and those
+    // flagged because a deeper depth that did so handed its failure up
+    private int chronologicalBelow;
+    private final boolean[] chronological;
+
+    // Depths whose forward checking pruned each variable's domain, in
+    // increasing order, and a log of which variable each pruning was
+    // recorded against so they can be undone, with the log's size when each
+    // depth was opened
+    private final int[][] pruners;
+    private final int[] prunerCount;
+    private int[] pruneLog;
+    private int pruneLogSize;
+    private final int[] pruneMark;
+
+    /** Stamp per depth, for removing duplicates from conflict sets */
+    private final int[] seen;
+    private int stamp;
+
+    private final NogoodStore nogoods;
+    private final int[] nogoodVars;
+    private final int[] nogoodValues;
+
+    Backjumper (int nMeetings, int startDepth) {
+        this.startDepth = startDepth;
+        depthOf = new int[nMeetings];
+        Arrays.fill(depthOf, -1);
+        conflicts = new int[nMeetings][];
+        conflictSize = new int[nMeetings];
+        chronological = new boolean[nMeetings];
+        pruners = new int[nMeetings][];
+        prunerCount = new int[nMeetings];
+        pruneLog = new int[16];
+        pruneMark = new int[nMeetings];
+        seen = new int[nMeetings];
+        nogoods = new NogoodStore(nMeetings, NogoodStore.DEFAULT_CAPACITY);
+        nogoodVars = new int[NogoodStore.MAX_LENGTH];
+        nogoodValues = new int[NogoodStore.MAX_LENGTH];
+    }
+
+    /**
+     * Starts an empty conflict set for a newly opened choice point.
+     */
+    void open (int depth) {
+        conflictSize[depth] = 0;
+        chronological[depth] = false;
+        chronologicalBelow = Math.min(chronologicalBelow, depth);
+        pruneMark[depth] = pruneLogSize;
+    }
+
+    /**
+     * Called before each value of the variable at the given depth is tried,
+     * undoing the prunings recorded for its previous value and below.
+     */
+    void assigning (int depth, int var) {
+        depthOf[var] = depth;
+        while (pruneLogSize > pruneMark[depth]) {
+            prunerCount[pruneLog[--pruneLogSize]]--;
+        }
+    }
+
+    /**
+     * Called once propagation accepts the variable's value: records the
+     * domains forward checking pruned, then checks the learned nogoods.
+     * @return false if the value completes a nogood, which then explains its
+     *         failure
+     */
+    boolean accepted (int depth, int var, int[] assignment, Propagator propagator) {
+        for (int i = 0; i < propagator.prunedCount(); i++) {
+            int pruned = propagator.pruned(i);
+            if (pruners[pruned] == null || pruners[pruned].length == prunerCount[pruned]) {
+                pruners[pruned] = Arrays.copyOf(pruners[pruned] == null ? new int[0] : pruners[pruned],
+                        Math.max(4, 2 * prunerCount[pruned]));
+            }
+            pruners[pruned][prunerCount[pruned]++] = depth;
+            if (pruneLogSize == pruneLog.length) {
+                pruneLog = Arrays.copyOf(pruneLog, 2 * pruneLogSize);
+            }
+            pruneLog[pruneLogSize++] = pruned;
+        }
+        int[] nogood = nogoods.violated(var, assignment);
+        if (nogood == null) {
+            return true;
+        }
+        for (int other : nogood) {
+            addConflict(depth, depthOf[other]);
+        }
+        return false;
+    }
+
+    /**
+     * Explains why propagation rejected the value of the variable at the
+     * given depth.
+     */
+    void rejected (int depth, Propagation propagation, Propagator propagator) {
+        int culprit = propagator.culprit();
+        if (propagation == Propagation.NONE) {
+            if (culprit != -1) {
+                addConflict(depth, depthOf[culprit]);
+            }
+        } else if (culprit != -1) {
+            addPruners(depth, culprit);
+        } else {
+            chronological[depth] = true;
+        }
+    }
+
+    /**
+     * Makes the given depth back up chronologically, after one of its values
+     * failed for a reason no conflict set can express, e.g. the bound of a
+     * branch and bound search.
+     */
+    void unexplained (int depth) {
+        chronological[depth] = true;
+    }
+
+    /**
+     * Forgets the prunings recorded since the starting depth was opened, once
+     * the search restarts from it. Learned nogoods are kept, as each holds
+     * for the whole search.
+     */
+    void restarted () {
+        while (pruneLogSize > pruneMark[startDepth]) {
+            prunerCount[pruneLog[--pruneLogSize]]--;
+        }
+    }
+
+    void unassigned (int var) {
+        depthOf[var] = -1;
+    }
+
+    /**
+     * Makes every depth above the given one back up chronologically, once a
+     * solution has been found below it.
+     */
+    void solutionFound (int depth) {
+        chronologicalBelow = depth;
+    }
+
+    /**
+     * Picks the depth to resume from once the given depth has run out of
+     * values, learning the failure as a nogood and handing the rest of the
+     * conflict set to that depth.
+     * @param stackVar The variable assigned at each depth
+     * @param assignment Day offset assigned to each variable
+     * @return The depth to resume from, below the starting depth if the
+     *         search space is exhausted
+     */
+    int backjump (int depth, int[] stackVar, int[] assignment) {
+        if (depth < chronologicalBelow || chronological[depth]) {
+            if (depth > startDepth) {
+                chronological[depth - 1] = true;
+            }
+            return depth - 1;
+        }
+        addPruners(depth, stackVar[depth]);
+        compact(depth);
+        int[] conflict = conflicts[depth];
+        int size = conflictSize[depth];
+        int target = startDepth - 1;
+        for (int i = 0; i < size; i++) {
+            target = Math.max(target, conflict[i]);
+        }
+        if (size <= NogoodStore.MAX_LENGTH) {
+            for (int i = 0; i < size; i++) {
+                nogoodVars[i] = stackVar[conflict[i]];
+                nogoodValues[i] = assignment[nogoodVars[i]];
+            }
+            nogoods.add(nogoodVars, nogoodValues, size);
+        }
+        for (int i = 0; i < size; i++) {
+            if (conflict[i] != target) {
+                addConflict(target, conflict[i]);
+            }
+        }
+        return target;
+    }
+
+    /**
+     * @return The number of nogoods currently learned
+     */
+    int nogoodCount () {
+        return nogoods.size();
+    }
+
+    private void addPruners (int depth, int var) {
+        for (int i = 0; i < prunerCount[var]; i++) {
+            addConflict(depth, pruners[var][i]);
+        }
+    }
+
+    private void addConflict (int depth, int culprit) {
+        if (culprit < startDepth || culprit >= depth) {
+            return;
+        }
+        int size = conflictSize[depth];
+        if (size > 0 && conflicts[depth][size - 1] == culprit) {
+            return;
+        }
+        if (conflicts[depth] == null || conflicts[depth].length == size) {
+            compact(depth);
+            size = conflictSize[depth];
+            if (conflicts[depth] == null || 2 * size > conflicts[depth].length) {
+                conflicts[depth] = Arrays.copyOf(conflicts[depth] == null ? new int[0] : conflicts[depth],
+                        Math.max(8, 2 * size));
+            }
+        }
+        conflicts[depth][size] = culprit;
+        conflictSize[depth] = size + 1;
+    }
+
+    /**
+     * Removes duplicates from a conflict set.
+     */
+    private void compact (int depth) {
+        int[] conflict = conflicts[depth];
+        if (conflict == null) {
+            return;
+        }
+        stamp++;
+        int size = 0;
+        for (int i = 0; i < conflictSize[depth]; i++) {
+            if (seen[conflict[i]] != stamp) {
+                seen[conflict[i]] = stamp;
+                conflict[size++] = conflict[i];
+            }
+        }
+        conflictSize[depth] = size;
+    }
+
+}
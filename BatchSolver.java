@@ -0,0 +1,145 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * BatchSolver: solves many independent CalendarProblems concurrently on a
+ * bounded pool of worker threads, streaming each result back as soon as
+ * its problem is solved.
+ */
+public class BatchSolver implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final SolverOptions options;
+
+    /**
+     * @param threads Number of problems to solve at once
+     * @param options Search strategies used for every problem
+     */
+    public BatchSolver (int threads, SolverOptions options) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads");
+        }
+        executor = Executors.newFixedThreadPool(threads);
+        this.options = options;
+    }
+
+    /**
+     * Submits every problem and returns their results in the order they
+     * finish. The stream blocks while waiting for the next result; a
+     * problem whose solve threw rethrows from the stream as a
+     * CompletionException.
+     * @param problems The problems to solve
+     * @return One Result per problem, in completion order
+     */
+    public Stream<Result> solveAll (Collection<CalendarProblem> problems) {
+        ExecutorCompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+        List<CalendarProblem> submitted = new ArrayList<>(problems);
+        for (int i = 0; i < submitted.size(); i++) {
+            int index = i;
+            CalendarProblem problem = submitted.get(i);
+            completion.submit(() -> solve(index, problem));
+        }
+
+        Iterator<Result> results = new Iterator<Result>() {
+            private int remaining = submitted.size();
+
+            @Override
+            public boolean hasNext () {
+                return remaining > 0;
+            }
+
+            @Override
+            public Result next () {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                try {
+                    return completion.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for a result");
+                } catch (ExecutionException e) {
+                    throw new CompletionException(e.getCause());
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(results, submitted.size(),
+                Spliterator.SIZED | Spliterator.NONNULL), false);
+    }
+
+    private Result solve (int index, CalendarProblem problem) {
+        ConstraintNetwork network = new ConstraintNetwork(problem.getMeetingCount(), problem.getRangeStart(),
+                problem.getRangeEnd(), problem.getConstraints(), options.isSymmetryBreaking());
+        return new Result(index, problem, CSP.solveDetailed(network, CSP.makeDomains(network), options));
+    }
+
+    /**
+     * Stops the worker threads once the problems already submitted finish.
+     */
+    @Override
+    public void close () {
+        executor.shutdown();
+    }
+
+    /**
+     * Result: the outcome of one problem in a batch.
+     */
+    public static final class Result {
+
+        private final int index;
+        private final CalendarProblem problem;
+        private final SolverResult result;
+
+        Result (int index, CalendarProblem problem, SolverResult result) {
+            this.index = index;
+            this.problem = problem;
+            this.result = result;
+        }
+
+        /**
+         * @return The position of the problem in the submitted collection
+         */
+        public int getIndex () {
+            return index;
+        }
+
+        public CalendarProblem getProblem () {
+            return problem;
+        }
+
+        public SolverResult.Status getStatus () {
+            return result.getStatus();
+        }
+
+        /**
+         * @return As returned by CSP.solve: the meeting dates, or null if no
+         *         solution was found
+         */
+        public List<LocalDate> getSolution () {
+            return result.getSolution();
+        }
+
+        public SolverStats getStats () {
+            return result.getStats();
+        }
+
+    }
+
+}
@@ -32,6 +32,33 @@ public class BinaryDateConstraint extends DateConstraint {
         R_VAL = rVal;
     }
     
+    /**
+     * Two BinaryDateConstraints are equal when they constrain the same
+     * pair of meetings in the same way, whichever of the two is written
+     * first, e.g. "0 < 1" equals "1 > 0".
+     */
+    @Override
+    public boolean equals (Object other) {
+        if (!(other instanceof BinaryDateConstraint)) {
+            return false;
+        }
+        BinaryDateConstraint b = (BinaryDateConstraint) other;
+        if (L_VAL == b.L_VAL) {
+            return R_VAL == b.R_VAL && OP.equals(b.OP);
+        }
+        return L_VAL == b.R_VAL && R_VAL == b.L_VAL
+                && OP.equals(Operator.of(b.OP).converse().symbol);
+    }
+    
+    @Override
+    public int hashCode () {
+        // Symmetric in the meetings, as equal constraints may be written
+        // either way round; constraints on one pair rarely differ only in
+        // OP. The odd multiplier spreads the pairs of a dense network, which
+        // 31 * min + max would fold onto a few thousand of each other
+        return Math.min(L_VAL, R_VAL) * 0x9E3779B9 ^ Math.max(L_VAL, R_VAL);
+    }
+    
     @Override
     public String toString () {
         return super.toString() + " " + R_VAL;
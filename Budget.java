@@ -0,0 +1,79 @@
+package csp;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget: the limits of one solve, from its SolverOptions: a deadline, a
+ * number of search nodes, and a cancellation token. The clock starts when
+ * the budget is created. Searches charge the nodes they try in batches, so
+ * the deadline and token are only polled every few hundred nodes, and a
+ * parallel search shares one budget between its tasks, which may overrun
+ * the node limit by a batch each.
+ */
+final class Budget {
+
+    /** Most nodes tried between two checks of the budget */
+    private static final int CHECK_INTERVAL = 256;
+
+    /**
+     * Longest time limit kept, about 146 years, so that the deadline can be
+     * compared with System.nanoTime() without overflow; a longer one is no
+     * limit at all
+     */
+    private static final Duration LONGEST_TIME_LIMIT = Duration.ofNanos(Long.MAX_VALUE / 2);
+
+    private final long deadline;
+    private final boolean timed;
+    private final long nodeLimit;
+    private final CancellationToken token;
+    private final AtomicLong spent = new AtomicLong();
+    private volatile boolean exceeded;
+
+    Budget (SolverOptions options) {
+        Duration timeLimit = options.getTimeLimit();
+        timed = timeLimit != null && timeLimit.compareTo(LONGEST_TIME_LIMIT) < 0;
+        deadline = timed ? System.nanoTime() + timeLimit.toNanos() : 0;
+        nodeLimit = options.getNodeLimit();
+        token = options.getCancellationToken();
+    }
+
+    /**
+     * @return Whether the options set no limit at all, so the budget need
+     *         not be checked
+     */
+    boolean isUnlimited () {
+        return !timed && nodeLimit == Long.MAX_VALUE && token == null;
+    }
+
+    /**
+     * Records nodes tried since the last charge and checks every limit.
+     * @return false once any limit has been exceeded
+     */
+    boolean charge (long nodes) {
+        if (exceeded) {
+            return false;
+        }
+        if (spent.addAndGet(nodes) > nodeLimit
+                || (timed && System.nanoTime() - deadline > 0)
+                || (token != null && token.isCancelled())) {
+            exceeded = true;
+        }
+        return !exceeded;
+    }
+
+    /**
+     * @return How many nodes may be tried before the next charge
+     */
+    long interval () {
+        return Math.max(1, Math.min(CHECK_INTERVAL, nodeLimit - spent.get()));
+    }
+
+    /**
+     * @return Whether a search stopped because a limit was exceeded
+     */
+    boolean isExceeded () {
+        return exceeded;
+    }
+
+}
@@ -1,11 +1,11 @@
 package csp;
 
-import static org.junit.Assert.fail;
-
 import java.time.LocalDate;
 import java.util.Set;
 import java.util.List;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * CSP: Calendar Satisfaction Problem Solver Provides a solution for scheduling
@@ -22,175 +22,297 @@ public class CSP {
 		return dateVariables;
 	}
 
-	private static List<LocalDate> makeDeepCopyOfVariableDomain(int nMeetings, LocalDate rangeStart,
-			LocalDate rangeEnd) {
-		List<LocalDate> currentDomainSet = new ArrayList<>();
-		LocalDate currentDate = rangeStart;
-		while (!currentDate.equals(rangeEnd)) {
-			currentDomainSet.add(currentDate);
-			currentDate = currentDate.plusDays(1);
+	static DateDomain[] makeDomains(ConstraintNetwork network) {
+		DateDomain[] domains = new DateDomain[network.nMeetings];
+		for (int i = 0; i < network.nMeetings; i++) {
+			domains[i] = new DateDomain(network.width);
 		}
-		currentDomainSet.add(rangeEnd);
-		return currentDomainSet;
+		return domains;
+
 	}
 
-	private static List<List<LocalDate>> makeDomains(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd) {
-		List<List<LocalDate>> domains = new ArrayList<>();
-		for (int i = 0; i < nMeetings; i++) {
-			domains.add(makeDeepCopyOfVariableDomain(nMeetings, rangeStart, rangeEnd));
-		}
-		return domains;
+	/**
+	 * Public interface for the CSP solver in which the number of meetings, range of
+	 * allowable dates for each meeting, and constraints on meeting times are
+	 * specified.
+	 * 
+	 * @param nMeetings   The number of meetings that must be scheduled, indexed
+	 *                    from 0 to n-1
+	 * @param rangeStart  The start date (inclusive) of the domains of each of the n
+	 *                    meeting-variables
+	 * @param rangeEnd    The end date (inclusive) of the domains of each of the n
+	 *                    meeting-variables
+	 * @param constraints Date constraints on the meeting times (unary and binary
+	 *                    for this assignment)
+	 * @return A list of dates that satisfies each of the constraints for each of
+	 *         the n meetings, indexed by the variable they satisfy, or null if no
+	 *         solution exists.
+	 */
 
+	public static List<LocalDate> solve(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints) {
+		return solve(nMeetings, rangeStart, rangeEnd, constraints, new SolverOptions());
 	}
 
-	private static boolean isConsistent(LocalDate leftDate, LocalDate rightDate, DateConstraint d) {
-		boolean sat = false;
-		switch (d.OP) {
-		case "==":
-			if (leftDate.isEqual(rightDate))
-				sat = true;
-			break;
-		case "!=":
-			if (!leftDate.isEqual(rightDate))
-				sat = true;
-			break;
-		case ">":
-			if (leftDate.isAfter(rightDate))
-				sat = true;
-			break;
-		case "<":
-			if (leftDate.isBefore(rightDate))
-				sat = true;
-			break;
-		case ">=":
-			if (leftDate.isAfter(rightDate) || leftDate.isEqual(rightDate))
-				sat = true;
-			break;
-		case "<=":
-			if (leftDate.isBefore(rightDate) || leftDate.isEqual(rightDate))
-				sat = true;
-			break;
-		}
-		return sat;
+	/**
+	 * As {@link #solve(int, LocalDate, LocalDate, Set)}, but searching with the
+	 * variable ordering, value ordering, propagation and parallelism given in
+	 * options, and answering from the options' solution cache, if any, when it
+	 * holds the problem.
+	 * 
+	 * @param options Search strategies to use
+	 */
+	public static List<LocalDate> solve(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints, SolverOptions options) {
+		SolutionCache cache = options.getSolutionCache();
+		CalendarProblem problem = null;
+		if (cache != null) {
+			problem = new CalendarProblem(nMeetings, rangeStart, rangeEnd, constraints);
+			Optional<List<LocalDate>> cached = cache.get(problem);
+			if (cached != null) {
+				return cached.orElse(null);
+			}
+		}
+		ConstraintNetwork network = new ConstraintNetwork(nMeetings, rangeStart, rangeEnd, constraints,
+				options.isSymmetryBreaking());
+		SolverResult result = solveDetailed(network, makeDomains(network), options);
+		if (cache != null && result.getStatus() != SolverResult.Status.UNKNOWN) {
+			cache.put(problem, result.getSolution());
+		}
+		return result.getSolution();
+	}
 
+	/**
+	 * As {@link #solve(int, LocalDate, LocalDate, Set, SolverOptions)}, but also
+	 * reporting how the solve ended, how much work it did and where its time
+	 * went. A solve that exceeds the options' time or node limit, or whose
+	 * cancellation token is cancelled, stops with an UNKNOWN status and the
+	 * statistics gathered until then, where solve() would return null.
+	 * 
+	 * @param options Search strategies and limits to use
+	 * @return The outcome of the solve, with its solution if one was found
+	 */
+	public static SolverResult solveDetailed(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints, SolverOptions options) {
+		ConstraintNetwork network = new ConstraintNetwork(nMeetings, rangeStart, rangeEnd, constraints,
+				options.isSymmetryBreaking());
+		return solveDetailed(network, makeDomains(network), options);
 	}
 
-	private static List<List<LocalDate>> nodeConsistency(List<List<LocalDate>> domains,
-			Set<DateConstraint> constraints) {
-		for (DateConstraint d : constraints) {
-			if (d.arity() == 2) {
-				continue;
+	/**
+	 * Lazily enumerates every solution, in the order the search finds them;
+	 * each solution is only searched for when the stream requests it. The
+	 * options' parallel pool is ignored, as enumeration is sequential.
+	 * 
+	 * @param options Search strategies to use
+	 * @return A stream of every list of dates that satisfies the constraints,
+	 *         without repeats, which is empty if no solution exists
+	 */
+	public static Stream<List<LocalDate>> solutions(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints, SolverOptions options) {
+		ConstraintNetwork network = new ConstraintNetwork(nMeetings, rangeStart, rangeEnd, constraints);
+		Search search = propagatedSearch(network, options);
+		if (search == null) {
+			return Stream.empty();
+		}
+		Iterator<List<LocalDate>> solutions = new Iterator<List<LocalDate>>() {
+			private boolean ready;
+			private boolean found;
+
+			@Override
+			public boolean hasNext() {
+				if (!ready) {
+					found = search.next();
+					ready = true;
+				}
+				return found;
 			}
-			for (int i = 0; i < domains.size(); i++) {
-				if (i == d.L_VAL) {
-					for (int j = 0; j < domains.get(i).size(); j++) {
-						LocalDate leftDate = domains.get(i).get(j);
-						LocalDate rightDate = ((UnaryDateConstraint) d).R_VAL;
-						if (!isConsistent(leftDate, rightDate, d)) {
-							domains.get(i).remove(leftDate);
-							j--;
-						}
-					}
 
+			@Override
+			public List<LocalDate> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
 				}
+				ready = false;
+				return toDates(network, search.assignment());
 			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(solutions,
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Counts every solution without building a list of dates for any of them.
+	 * 
+	 * @param options Search strategies to use; counting is fastest with forward
+	 *                checking or MAC
+	 * @return The number of lists of dates that satisfy the constraints
+	 */
+	public static long countSolutions(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints, SolverOptions options) {
+		ConstraintNetwork network = new ConstraintNetwork(nMeetings, rangeStart, rangeEnd, constraints);
+		Search search = propagatedSearch(network, options);
+		return (search == null) ? 0 : search.count();
+	}
+
+	/**
+	 * @return A sequential search over the node and arc consistent domains of
+	 *         the network, or null if propagation already shows there is no
+	 *         solution
+	 */
+	private static Search propagatedSearch(ConstraintNetwork network, SolverOptions options) {
+		if (network.contradictory) {
+			return null;
 		}
-		return domains;
+		DateDomain[] domains = makeDomains(network);
+		Propagator propagator = new Propagator(network, domains);
+		if (!propagator.nodeConsistency() || !TemporalNetwork.tighten(network, domains)
+				|| !propagator.arcConsistency()) {
+			return null;
+		}
+		return new Search(network, domains, options);
 	}
 
-	private static List<List<LocalDate>> arcConsistency(List<List<LocalDate>> domains,
-			Set<DateConstraint> constraints) {
-		for (DateConstraint d : constraints) {
-			if (d.arity() == 1) {
-				continue;
-			}
-			for (int k = 0; k < domains.size(); k++) {
-				if (k == d.L_VAL) {
-					List<LocalDate> tail = domains.get(d.L_VAL);
-					List<LocalDate> head = domains.get(((BinaryDateConstraint) d).R_VAL);
-					boolean signifiesTailIsConsistentWithHead = false;
-					for (int i = 0; i < tail.size(); i++) {
-						for (int j = 0; j < head.size(); j++) {
-							if (isConsistent(tail.get(i), head.get(j), d)) {
-								signifiesTailIsConsistentWithHead = true;
-							}
-							if (j == head.size() - 1 && !signifiesTailIsConsistentWithHead) {
-								tail.remove(tail.get(i));
-								i--;
-							}
-						}
-						signifiesTailIsConsistentWithHead = false;
-					}
+	/**
+	 * Propagates and searches the given domains, which the solve takes over.
+	 * Meetings that "==" constraints tie together are searched as one, and
+	 * meetings that fall into several groups that no constraint links to each
+	 * other are searched as one independent problem per group.
+	 * 
+	 * @return The outcome of the solve
+	 */
+	static SolverResult solveDetailed(ConstraintNetwork network, DateDomain[] domains, SolverOptions options) {
+		SolverStats stats = new SolverStats();
+		Budget budget = new Budget(options);
+		if (budget.isUnlimited()) {
+			budget = null;
+		}
+		SolverListener listener = options.getListener();
+		boolean consistent = preprocess(network, domains, stats, listener);
+		long start = System.nanoTime();
+		int[] result = null;
+		boolean refuted = false;
+		if (consistent) {
+			ConstraintNetwork[] components = network.decompose();
+			if (components == null) {
+				refuted = true;
+			} else if (components[0] != network || network.isOrderingOnly()) {
+				DecomposedSearch search = new DecomposedSearch(components, network.nMeetings, options, stats,
+						budget);
+				result = search.solve(domains);
+				refuted = search.isRefuted();
+			} else if (options.getParallelPool() == null) {
+				Search search = new Search(network, domains, options);
+				search.allowRestarts();
+				if (budget != null) {
+					search.limitTo(budget);
 				}
+				result = search.solve();
+				search.addStats(stats);
+			} else {
+				result = new ParallelSearch(network, options, options.getParallelPool(), stats, budget)
+						.solve(domains);
 			}
 		}
-		return domains;
+		stats.setSearchTime(System.nanoTime() - start);
+		if (listener != null) {
+			listener.finished(stats);
+		}
+		SolverResult.Status status = (result != null) ? SolverResult.Status.SATISFIABLE
+				: (budget != null && budget.isExceeded() && !refuted) ? SolverResult.Status.UNKNOWN
+						: SolverResult.Status.UNSATISFIABLE;
+		return new SolverResult(status, toDates(network, result), stats);
 	}
 
-	private static boolean constraintCheck(List<LocalDate> assignments, Set<DateConstraint> constraints) {
-		for (DateConstraint d : constraints) {
-			LocalDate leftDate = assignments.get(d.L_VAL);
-			LocalDate rightDate = (d.arity() == 1) ? ((UnaryDateConstraint) d).R_VAL
-					: assignments.get(((BinaryDateConstraint) d).R_VAL);
-			if (leftDate == null || rightDate == null) {
-				continue;
+	/**
+	 * Finds a solution that minimizes the given objective by branch and bound:
+	 * each solution found is reported to the options' listener, if any, and
+	 * the search goes on for one that costs less, skipping every subtree whose
+	 * assignments and domain bounds show that it cannot. The options' parallel
+	 * pool is ignored, as branch and bound is sequential. Every objective
+	 * treats all meetings alike, so breaking symmetry keeps an optimal
+	 * solution.
+	 * 
+	 * @param objective What to minimize
+	 * @param options   Search strategies and limits to use
+	 * @return An OPTIMAL result, or if a limit stopped the search first, a
+	 *         SATISFIABLE one with the best solution found until then
+	 */
+	public static SolverResult optimize(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+			Set<DateConstraint> constraints, Objective objective, SolverOptions options) {
+		ConstraintNetwork network = new ConstraintNetwork(nMeetings, rangeStart, rangeEnd, constraints,
+				options.isSymmetryBreaking());
+		DateDomain[] domains = makeDomains(network);
+		SolverStats stats = new SolverStats();
+		Budget budget = new Budget(options);
+		SolverListener listener = options.getListener();
+		boolean consistent = preprocess(network, domains, stats, listener);
+		long start = System.nanoTime();
+		int[] best = null;
+		if (consistent) {
+			Search search = new Search(network, domains, options);
+			search.allowRestarts();
+			if (!budget.isUnlimited()) {
+				search.limitTo(budget);
 			}
-			if (!isConsistent(leftDate, rightDate, d)) {
-				return false;
+			search.minimize(objective);
+			while (search.next()) {
+				best = search.assignment().clone();
+				if (listener != null) {
+					listener.improved(toDates(network, best));
+				}
 			}
+			search.addStats(stats);
 		}
-
-		return true;
+		stats.setSearchTime(System.nanoTime() - start);
+		if (listener != null) {
+			listener.finished(stats);
+		}
+		SolverResult.Status status = budget.isExceeded()
+				? ((best != null) ? SolverResult.Status.SATISFIABLE : SolverResult.Status.UNKNOWN)
+				: ((best != null) ? SolverResult.Status.OPTIMAL : SolverResult.Status.UNSATISFIABLE);
+		return new SolverResult(status, toDates(network, best), stats);
 	}
 
-	public static List<LocalDate> recursiveBackTracking(List<LocalDate> assignment, List<List<LocalDate>> domains,
-			Set<DateConstraint> constraints, int indexOfUnassignedVariable, int stopSize) {
-		if (indexOfUnassignedVariable == stopSize
-				&& constraintCheck(assignment, constraints)/* || domains.size() == 0 */) {
-			return assignment;
-		}
-		for (LocalDate value : domains.get(indexOfUnassignedVariable)) {
-			assignment.set(indexOfUnassignedVariable, value);
-			if (constraintCheck(assignment, constraints)) {
-				List<LocalDate> result = recursiveBackTracking(assignment, domains, constraints,
-						indexOfUnassignedVariable + 1, stopSize);
-				if (result != null) {
-					return result;
-				}
+	/**
+	 * Runs node consistency, then the temporal network's bounds and arc
+	 * consistency, on the given domains, timing each into stats, unless
+	 * normalizing the constraints already found a contradiction.
+	 * 
+	 * @return false if they already show there is no solution
+	 */
+	private static boolean preprocess(ConstraintNetwork network, DateDomain[] domains, SolverStats stats,
+			SolverListener listener) {
+		if (network.contradictory) {
+			if (listener != null) {
+				listener.preprocessed(false);
 			}
-			assignment.set(indexOfUnassignedVariable, null);
+			return false;
+		}
+		Propagator propagator = new Propagator(network, domains);
+		long start = System.nanoTime();
+		boolean consistent = propagator.nodeConsistency();
+		long nodeConsistent = System.nanoTime();
+		consistent = consistent && TemporalNetwork.tighten(network, domains) && propagator.arcConsistency();
+		stats.add(0, 0, 0, propagator.revisions);
+		stats.setPreprocessingTimes(nodeConsistent - start, System.nanoTime() - nodeConsistent);
+		if (listener != null) {
+			listener.preprocessed(consistent);
 		}
-		return null;
+		return consistent;
 	}
 
 	/**
-	 * Public interface for the CSP solver in which the number of meetings, range of
-	 * allowable dates for each meeting, and constraints on meeting times are
-	 * specified.
-	 * 
-	 * @param nMeetings   The number of meetings that must be scheduled, indexed
-	 *                    from 0 to n-1
-	 * @param rangeStart  The start date (inclusive) of the domains of each of the n
-	 *                    meeting-variables
-	 * @param rangeEnd    The end date (inclusive) of the domains of each of the n
-	 *                    meeting-variables
-	 * @param constraints Date constraints on the meeting times (unary and binary
-	 *                    for this assignment)
-	 * @return A list of dates that satisfies each of the constraints for each of
-	 *         the n meetings, indexed by the variable they satisfy, or null if no
-	 *         solution exists.
+	 * @return The dates of the given day offsets, or null if result is null
 	 */
-
-	public static List<LocalDate> solve(int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
-			Set<DateConstraint> constraints) {
-		List<List<LocalDate>> domains = arcConsistency(
-				nodeConsistency(makeDomains(nMeetings, rangeStart, rangeEnd), constraints), constraints);
-
-		List<LocalDate> assignment = makeDateVars(nMeetings);
-		List<LocalDate> solution = recursiveBackTracking(assignment, domains, constraints, 0, nMeetings);
-		if (solution == null) {
+	static List<LocalDate> toDates(ConstraintNetwork network, int[] result) {
+		if (result == null) {
 			return null;
 		}
+		List<LocalDate> solution = makeDateVars(network.nMeetings);
+		for (int i = 0; i < network.nMeetings; i++) {
+			solution.set(i, network.toDate(result[i]));
+		}
 		return solution;
 	}
 }
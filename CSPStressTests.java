@@ -0,0 +1,134 @@
+package csp;
+
+import static org.junit.Assert.*;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CSPStressTests {
+
+    // =================================================
+    // Test Configuration
+    // =================================================
+
+    // The stress instances grow until they take a noticeable fraction of a
+    // second each, so they get more time than the hand-written ones
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(60);
+
+    private static final int HORIZON = 30;
+    private static final int[] SIZES = {25, 50, 100, 200, 400, 800, 1600, 3200};
+
+    /** One line per solve, printed once every test has run */
+    private static final List<String> REPORT = new ArrayList<>();
+
+    private static SolverOptions options () {
+        return new SolverOptions()
+            .setVariableOrder(VariableOrder.MRV)
+            .setPropagation(Propagation.MAC);
+    }
+
+    /**
+     * Solves the problem with the given options and records how long it
+     * took and how much it allocated.
+     */
+    private static List<LocalDate> solve (String family, CalendarProblem problem, SolverOptions options) {
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        List<LocalDate> solution = CSP.solve(
+            problem.getMeetingCount(),
+            problem.getRangeStart(),
+            problem.getRangeEnd(),
+            problem.getConstraints(),
+            options
+        );
+        long nanos = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        synchronized (REPORT) {
+            REPORT.add(String.format("%-16s %6d meetings %7d constraints %9.2f ms %10d KB  %s",
+                family, problem.getMeetingCount(), problem.getConstraints().size(), nanos / 1e6,
+                allocated / 1024, (solution == null) ? "unsat" : "sat"));
+        }
+        return solution;
+    }
+
+    /**
+     * @return Bytes allocated by the current thread so far, where the JVM
+     *         reports it, or else 0
+     */
+    private static long allocatedBytes () {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    @AfterClass
+    public static void printReport () {
+        for (String line : REPORT) {
+            System.out.println(line);
+        }
+    }
+
+    // =================================================
+    // Stress Tests
+    // =================================================
+
+    @Test
+    public void stress_satisfiable() {
+        // About 6 constraints per meeting at every size
+        for (int n : SIZES) {
+            for (InstanceGenerator.OperatorMix mix : InstanceGenerator.OperatorMix.values()) {
+                CalendarProblem problem = InstanceGenerator.satisfiable(n, n, HORIZON, 6.0 / n, mix);
+                List<LocalDate> solution = solve("satisfiable", problem, options());
+                assertNotNull(solution);
+                CSPTests.testSolution(solution, problem.getConstraints());
+            }
+        }
+    }
+
+    @Test
+    public void stress_unsatisfiable() {
+        for (int n : SIZES) {
+            for (long seed = 0; seed < 3; seed++) {
+                CalendarProblem problem = InstanceGenerator.unsatisfiable(
+                    seed, n, HORIZON, 6.0 / n, InstanceGenerator.OperatorMix.MIXED
+                );
+                assertNull(solve("unsatisfiable", problem, options()));
+            }
+        }
+    }
+
+    @Test
+    public void stress_phaseTransition() {
+        // Small enough for exhaustive search, but as hard as random instances
+        // of their size get; forward checking with backjumping must agree
+        // with MAC on which of them have a solution
+        for (int n : new int[] {10, 15, 20}) {
+            for (long seed = 0; seed < 10; seed++) {
+                CalendarProblem problem = InstanceGenerator.phaseTransition(
+                    seed, n, 5, InstanceGenerator.OperatorMix.MIXED
+                );
+                List<LocalDate> solution = solve("phase transition", problem, options());
+                List<LocalDate> other = solve("phase transition", problem, new SolverOptions()
+                    .setVariableOrder(VariableOrder.MRV)
+                    .setPropagation(Propagation.FORWARD_CHECKING)
+                    .setBackjumping(true));
+                assertEquals(solution == null, other == null);
+                if (solution != null) {
+                    CSPTests.testSolution(solution, problem.getConstraints());
+                    CSPTests.testSolution(other, problem.getConstraints());
+                }
+            }
+        }
+    }
+
+}
@@ -4,11 +4,21 @@ import static org.junit.Assert.*;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.Timeout;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Set;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CSPTests {
     
@@ -51,6 +61,29 @@ public class CSPTests {
         }
     }
     
+    /**
+     * Tests a solution against constraints that may include
+     * AllDifferentDateConstraints, which testSolution does not know
+     * @param soln Full instantiation of variables to assigned values, indexed by variable
+     * @param constraints The set of constraints the solution must satisfy
+     */
+    public static void testAllDifferent (List<LocalDate> soln, Set<DateConstraint> constraints) {
+        Set<DateConstraint> comparisons = new HashSet<>();
+        for (DateConstraint d : constraints) {
+            if (!(d instanceof AllDifferentDateConstraint)) {
+                comparisons.add(d);
+                continue;
+            }
+            Set<LocalDate> dates = new HashSet<>();
+            for (int m : ((AllDifferentDateConstraint) d).MEETINGS) {
+                if (!dates.add(soln.get(m))) {
+                    fail("[X] Constraint Failed: " + d);
+                }
+            }
+        }
+        testSolution(soln, comparisons);
+    }
+    
     
     // =================================================
     // Unit Tests
@@ -306,4 +339,1053 @@ public class CSPTests {
         testSolution(solution, constraints);
     }
     
+    @Test
+    public void CSP_t10() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "==", 2),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(3, "==", 4),
+                new BinaryDateConstraint(4, "<", 0),
+                new BinaryDateConstraint(3, ">", 2)
+            )
+        );
+        
+        // The puzzle from t7 again, this time choosing the most constrained
+        // meeting first and trying its least constraining dates first
+        List<LocalDate> solution = CSP.solve(
+            5,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 3),
+            constraints,
+            new SolverOptions()
+                .setVariableOrder(VariableOrder.MRV)
+                .setValueOrder(ValueOrder.LCV)
+        );
+        
+        testSolution(solution, constraints);
+    }
+    
+    @Test
+    public void CSP_t11() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 8; i++) {
+            for (int j = i + 1; j < 8; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        
+        // 8 meetings that must all be on different days of a 7 day week
+        // (impossible), which needs propagation during search to be refuted
+        // quickly
+        List<LocalDate> solution = CSP.solve(
+            8,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 7),
+            constraints,
+            new SolverOptions()
+                .setVariableOrder(VariableOrder.MRV)
+                .setPropagation(Propagation.MAC)
+        );
+        
+        assertNull(solution);
+    }
+    
+    @Test
+    public void CSP_t12() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2019, 1, 1)),
+                new UnaryDateConstraint(1, ">", LocalDate.of(2019, 2, 1)),
+                new UnaryDateConstraint(2, ">", LocalDate.of(2019, 3, 1)),
+                new UnaryDateConstraint(3, ">", LocalDate.of(2019, 4, 1)),
+                new UnaryDateConstraint(4, ">", LocalDate.of(2019, 5, 1)),
+                new BinaryDateConstraint(0, ">", 4),
+                new BinaryDateConstraint(1, ">", 3),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(4, "!=", 0),
+                new BinaryDateConstraint(3, ">", 2),
+                new BinaryDateConstraint(1, "!=", 4)
+            )
+        );
+        
+        // The instance from t9, joined into one component by 1 != 4 so that
+        // it is not decomposed, with the search split across a ForkJoinPool
+        List<LocalDate> solution = CSP.solve(
+            5,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 6, 30),
+            constraints,
+            new SolverOptions()
+                .setPropagation(Propagation.FORWARD_CHECKING)
+                .setParallelPool(ForkJoinPool.commonPool())
+        );
+        
+        testSolution(solution, constraints);
+        
+        // Meetings 1-4 all differ and are before meeting 0, so only its last
+        // two days leave them room, which forward checking can't tell from
+        // the others: a lone worker runs the branches on its earlier days,
+        // then one that succeeds, then cancels the rest
+        constraints.clear();
+        for (int i = 1; i <= 4; i++) {
+            constraints.add(new BinaryDateConstraint(i, "<", 0));
+            for (int j = i + 1; j <= 4; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        AtomicInteger branches = new AtomicInteger();
+        SolverListener listener = new SolverListener() {
+            @Override
+            public void assigned (int meeting, LocalDate date, int depth) {
+                if (depth == 0) {
+                    branches.incrementAndGet();
+                }
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            solution = CSP.solve(
+                5,
+                LocalDate.of(2019, 1, 1),
+                LocalDate.of(2019, 1, 6),
+                constraints,
+                new SolverOptions()
+                    .setPropagation(Propagation.FORWARD_CHECKING)
+                    .setParallelPool(pool)
+                    .setListener(listener)
+            );
+        } finally {
+            pool.shutdown();
+        }
+        
+        testSolution(solution, constraints);
+        assertTrue(branches.get() > 1);
+        assertTrue(branches.get() < 5);
+    }
+    
+    @Test
+    public void CSP_t13() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i + 1 < 50000; i++) {
+            constraints.add(new BinaryDateConstraint(i, "!=", i + 1));
+        }
+        
+        // 50,000 meetings, each on a different day than the next: far deeper
+        // than a recursive search could go on a default thread stack
+        List<LocalDate> solution = CSP.solve(
+            50000,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 2),
+            constraints
+        );
+        
+        testSolution(solution, constraints);
+    }
+    
+    @Test
+    public void CSP_t14() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "!=", 2)
+            )
+        );
+        
+        // A session re-solved after each edit to its constraints and range
+        SolverSession session = new SolverSession(
+            3,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 2),
+            constraints
+        );
+        testSolution(session.solve(), constraints);
+        
+        // Meeting 0 and 2 can't share a day either: 3 meetings, 2 days
+        DateConstraint clash = new BinaryDateConstraint(0, "!=", 2);
+        constraints.add(clash);
+        session.addConstraint(clash);
+        assertNull(session.solve());
+        
+        // ...until a third day is allowed
+        session.changeRange(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3));
+        testSolution(session.solve(), constraints);
+        
+        DateConstraint early = new UnaryDateConstraint(2, "<", LocalDate.of(2019, 1, 2));
+        constraints.add(early);
+        session.addConstraint(early);
+        testSolution(session.solve(), constraints);
+        
+        constraints.remove(clash);
+        session.removeConstraint(clash);
+        testSolution(session.solve(), constraints);
+    }
+    
+    @Test
+    public void CSP_t15() {
+        // The instances from t0 through t2, solved together as one batch
+        List<CalendarProblem> problems = Arrays.asList(
+            new CalendarProblem(1, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), new HashSet<>(Arrays.asList(
+                new UnaryDateConstraint(0, "==", LocalDate.of(2019, 1, 3))
+            ))),
+            new CalendarProblem(1, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), new HashSet<>(Arrays.asList(
+                new UnaryDateConstraint(0, "==", LocalDate.of(2019, 1, 6))
+            ))),
+            new CalendarProblem(1, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5), new HashSet<>(Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2019, 1, 3))
+            )))
+        );
+        
+        try (BatchSolver batch = new BatchSolver(2, new SolverOptions())) {
+            Set<Integer> seen = new HashSet<>();
+            batch.solveAll(problems).forEach(result -> {
+                assertTrue(seen.add(result.getIndex()));
+                if (result.getIndex() == 1) {
+                    assertNull(result.getSolution());
+                } else {
+                    testSolution(result.getSolution(), result.getProblem().getConstraints());
+                }
+            });
+            assertEquals(3, seen.size());
+        }
+    }
+    
+    @Test
+    public void CSP_t16() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(0, "!=", 2),
+                new BinaryDateConstraint(1, "!=", 2)
+            )
+        );
+        
+        // The instance from t6 has one solution per ordering of the 3
+        // meetings over the 3 days, i.e. 3! = 6 of them
+        List<List<LocalDate>> solutions = CSP.solutions(
+            3,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 3),
+            constraints,
+            new SolverOptions()
+        ).collect(Collectors.toList());
+        
+        assertEquals(6, solutions.size());
+        assertEquals(6, new HashSet<>(solutions).size());
+        for (List<LocalDate> solution : solutions) {
+            testSolution(solution, constraints);
+        }
+        assertEquals(6, CSP.countSolutions(
+            3,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 3),
+            constraints,
+            new SolverOptions().setPropagation(Propagation.FORWARD_CHECKING)
+        ));
+    }
+    
+    @Test
+    public void CSP_t17() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        int[] clique = {0, 1, 2, 24};
+        for (int i = 0; i < clique.length; i++) {
+            for (int j = i + 1; j < clique.length; j++) {
+                constraints.add(new BinaryDateConstraint(clique[i], "!=", clique[j]));
+            }
+        }
+        
+        for (int i = 3; i < 24; i++) {
+            constraints.add(new BinaryDateConstraint(i, "<=", 24));
+        }
+        
+        // 4 meetings on different days of a 3 day range, with 21 meetings
+        // that only have to be no later than the last one assigned between
+        // the first three and the last: backtracking one meeting at a time
+        // retries all 3^21 of their dates, backjumping goes straight back to
+        // the clique
+        List<LocalDate> solution = CSP.solve(
+            25,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 3),
+            constraints,
+            new SolverOptions().setBackjumping(true)
+        );
+        
+        assertNull(solution);
+    }
+    
+    @Test
+    public void CSP_t18() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "==", 2),
+                new BinaryDateConstraint(2, "!=", 3),
+                new BinaryDateConstraint(3, "==", 4),
+                new BinaryDateConstraint(4, "<", 0),
+                new BinaryDateConstraint(3, ">", 2)
+            )
+        );
+        
+        // The t7 puzzle again, checking that every value tried by the search
+        // is both counted and reported to the listener
+        long[] events = new long[2];
+        SolverListener listener = new SolverListener() {
+            @Override
+            public void assigned (int meeting, LocalDate date, int depth) {
+                events[0]++;
+            }
+            
+            @Override
+            public void rejected (int meeting, LocalDate date, int depth) {
+                events[1]++;
+            }
+        };
+        SolverResult result = CSP.solveDetailed(
+            5,
+            LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 3),
+            constraints,
+            new SolverOptions().setListener(listener)
+        );
+        
+        testSolution(result.getSolution(), constraints);
+        SolverStats stats = result.getStats();
+        // 1 == 2 and 3 == 4 are each searched as one meeting
+        assertEquals(3, events[0] - stats.getBacktracks());
+        assertEquals(stats.getNodes(), events[0] + events[1]);
+        assertTrue(stats.getConstraintChecks() > 0);
+        assertTrue(stats.getRevisions() > 0);
+    }
+    
+    @Test
+    public void CSP_t19() {
+        Set<DateConstraint> constraints = new HashSet<>();
+        int[] clique = {0, 1, 2, 24};
+        for (int i = 0; i < clique.length; i++) {
+            for (int j = i + 1; j < clique.length; j++) {
+                constraints.add(new BinaryDateConstraint(clique[i], "!=", clique[j]));
+            }
+        }
+        for (int i = 3; i < 24; i++) {
+            constraints.add(new BinaryDateConstraint(i, "<=", 24));
+        }
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 3);
+        
+        // The t17 instance, which takes far longer than the timeout to
+        // refute without backjumping, must stop at each kind of limit
+        SolverResult byNodes = CSP.solveDetailed(25, start, end, constraints,
+            new SolverOptions().setNodeLimit(10000));
+        assertEquals(SolverResult.Status.UNKNOWN, byNodes.getStatus());
+        assertNull(byNodes.getSolution());
+        assertTrue(byNodes.getStats().getNodes() >= 10000);
+        assertTrue(byNodes.getStats().getNodes() <= 10001);
+        
+        SolverResult byTime = CSP.solveDetailed(25, start, end, constraints,
+            new SolverOptions().setTimeLimit(Duration.ofMillis(100)));
+        assertEquals(SolverResult.Status.UNKNOWN, byTime.getStatus());
+        
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        SolverResult byToken = CSP.solveDetailed(25, start, end, constraints,
+            new SolverOptions().setCancellationToken(token).setParallelPool(ForkJoinPool.commonPool()));
+        assertEquals(SolverResult.Status.UNKNOWN, byToken.getStatus());
+        
+        // ...while within its limits, a solve still ends definitively
+        SolverResult refuted = CSP.solveDetailed(25, start, end, constraints,
+            new SolverOptions().setNodeLimit(10000).setBackjumping(true));
+        assertEquals(SolverResult.Status.UNSATISFIABLE, refuted.getStatus());
+        SolverResult unlimited = CSP.solveDetailed(25, start, end, constraints,
+            new SolverOptions().setTimeLimit(ChronoUnit.FOREVER.getDuration()).setBackjumping(true));
+        assertEquals(SolverResult.Status.UNSATISFIABLE, unlimited.getStatus());
+    }
+    
+    @Test
+    public void CSP_t20() {
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "<", 1),
+                new BinaryDateConstraint(1, "<", 2),
+                new UnaryDateConstraint(3, ">=", LocalDate.of(2019, 1, 5))
+            )
+        );
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 10);
+        List<List<LocalDate>> improved = new ArrayList<>();
+        SolverOptions options = new SolverOptions().setListener(new SolverListener() {
+            @Override
+            public void improved (List<LocalDate> solution) {
+                improved.add(solution);
+            }
+        });
+        
+        // Everything is over once meeting 3 is, on the 5th at the earliest
+        SolverResult earliest = CSP.optimize(4, start, end, constraints, Objective.LATEST_DATE, options);
+        assertEquals(SolverResult.Status.OPTIMAL, earliest.getStatus());
+        testSolution(earliest.getSolution(), constraints);
+        assertEquals(LocalDate.of(2019, 1, 5), Collections.max(earliest.getSolution()));
+        assertFalse(improved.isEmpty());
+        assertEquals(earliest.getSolution(), improved.get(improved.size() - 1));
+        for (int i = 1; i < improved.size(); i++) {
+            assertTrue(Collections.max(improved.get(i)).isBefore(Collections.max(improved.get(i - 1))));
+        }
+        
+        // ...and the chain can end on the same day, spanning only 3 days
+        SolverResult compact = CSP.optimize(4, start, end, constraints, Objective.SPAN,
+            new SolverOptions().setVariableOrder(VariableOrder.MRV).setBackjumping(true));
+        assertEquals(SolverResult.Status.OPTIMAL, compact.getStatus());
+        testSolution(compact.getSolution(), constraints);
+        assertEquals(2, ChronoUnit.DAYS.between(
+            Collections.min(compact.getSolution()), Collections.max(compact.getSolution())));
+        
+        constraints.add(new BinaryDateConstraint(2, "<", 0));
+        SolverResult none = CSP.optimize(4, start, end, constraints, Objective.SPAN, new SolverOptions());
+        assertEquals(SolverResult.Status.UNSATISFIABLE, none.getStatus());
+        assertNull(none.getSolution());
+    }
+    
+    @Test
+    public void CSP_t21() {
+        // Three meetings with two days between them, out of a range of ten:
+        // no domain is too small and no pair conflicts, so only the Hall set
+        // found by AllDifferent's matching refutes it, before searching
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 10);
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new AllDifferentDateConstraint(0, 1, 2),
+                new UnaryDateConstraint(0, "<=", LocalDate.of(2019, 1, 2)),
+                new UnaryDateConstraint(1, "<=", LocalDate.of(2019, 1, 2)),
+                new UnaryDateConstraint(2, "<=", LocalDate.of(2019, 1, 2))
+            )
+        );
+        SolverResult refuted = CSP.solveDetailed(3, start, end, constraints, new SolverOptions());
+        assertEquals(SolverResult.Status.UNSATISFIABLE, refuted.getStatus());
+        assertEquals(0, refuted.getStats().getNodes());
+        assertTrue(refuted.getStats().getRevisions() > 0);
+        
+        // Freed of its bound, meeting 2 loses the two days that 0 and 1
+        // must share between them, though neither is yet down to one
+        constraints.remove(new UnaryDateConstraint(2, "<=", LocalDate.of(2019, 1, 2)));
+        ConstraintNetwork network = new ConstraintNetwork(3, start, end, constraints);
+        DateDomain[] domains = CSP.makeDomains(network);
+        Propagator propagator = new Propagator(network, domains);
+        assertTrue(propagator.nodeConsistency());
+        assertTrue(propagator.arcConsistency());
+        assertEquals(2, domains[0].size());
+        assertEquals(2, domains[1].size());
+        assertEquals(8, domains[2].size());
+        assertEquals(2, domains[2].min());
+        
+        // A pair of meetings is kept apart by "!=", not AllDifferent, so no
+        // constraint's arity is ambiguous
+        assertEquals(4, new AllDifferentDateConstraint(0, 1, 2, 24).arity());
+        assertThrows(IllegalArgumentException.class, () -> new AllDifferentDateConstraint(0, 1));
+        
+        // Ten meetings on ten days, with 0 and 9 pinned by their neighbours
+        // to the first and last day, leave exactly 8! orders of the rest
+        constraints = new HashSet<>(
+            Arrays.asList(
+                new AllDifferentDateConstraint(0, 1, 2, 3, 4, 5, 6, 7, 8, 9),
+                new UnaryDateConstraint(0, "<", LocalDate.of(2019, 1, 2)),
+                new BinaryDateConstraint(9, ">", 8)
+            )
+        );
+        for (int i = 1; i < 8; i++) {
+            constraints.add(new BinaryDateConstraint(9, ">", i));
+        }
+        for (Propagation propagation : Propagation.values()) {
+            SolverOptions options = new SolverOptions()
+                .setVariableOrder(VariableOrder.MRV)
+                .setPropagation(propagation);
+            List<LocalDate> solution = CSP.solve(10, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 10),
+                constraints, options);
+            testAllDifferent(solution, constraints);
+            assertEquals(LocalDate.of(2019, 1, 10), solution.get(9));
+            assertEquals(40320, CSP.countSolutions(10, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 10),
+                constraints, options));
+        }
+    }
+    
+    @Test
+    public void CSP_t22() {
+        // Eight teams of five meetings, each team's meetings on different
+        // days, but nothing linking the teams
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int team = 0; team < 8; team++) {
+            constraints.add(new AllDifferentDateConstraint(
+                5 * team, 5 * team + 1, 5 * team + 2, 5 * team + 3, 5 * team + 4));
+        }
+        Set<Integer> reported = new HashSet<>();
+        SolverListener listener = new SolverListener() {
+            @Override
+            public synchronized void assigned (int meeting, LocalDate date, int depth) {
+                reported.add(meeting);
+                assertTrue(depth < 5);
+            }
+        };
+        for (ForkJoinPool pool : new ForkJoinPool[] {null, ForkJoinPool.commonPool()}) {
+            reported.clear();
+            SolverOptions options = new SolverOptions().setParallelPool(pool).setListener(listener);
+            List<LocalDate> solution = CSP.solve(40, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 5),
+                constraints, options);
+            testAllDifferent(solution, constraints);
+            assertEquals(40, reported.size());
+        }
+        
+        // The t17 clique with nothing tied to it is a team of its own, so
+        // even backtracking one meeting at a time refutes it at once
+        constraints.clear();
+        int[] clique = {0, 1, 2, 24};
+        for (int i = 0; i < clique.length; i++) {
+            for (int j = i + 1; j < clique.length; j++) {
+                constraints.add(new BinaryDateConstraint(clique[i], "!=", clique[j]));
+            }
+        }
+        SolverResult refuted = CSP.solveDetailed(25, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 3),
+            constraints, new SolverOptions().setNodeLimit(1000));
+        assertEquals(SolverResult.Status.UNSATISFIABLE, refuted.getStatus());
+    }
+    
+    @Test
+    public void CSP_t23() {
+        // A precedence chain over a century: ordering constraints alone are
+        // solved from the tightened bounds, without searching
+        LocalDate start = LocalDate.of(2000, 1, 1), end = LocalDate.of(2099, 12, 31);
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 49; i++) {
+            constraints.add(new BinaryDateConstraint(i, (i % 2 == 0) ? "<" : "<=", i + 1));
+        }
+        constraints.add(new UnaryDateConstraint(0, ">", LocalDate.of(2050, 6, 1)));
+        SolverResult chain = CSP.solveDetailed(50, start, end, constraints, new SolverOptions());
+        assertEquals(SolverResult.Status.SATISFIABLE, chain.getStatus());
+        testSolution(chain.getSolution(), constraints);
+        assertEquals(0, chain.getStats().getNodes());
+        
+        // ...and closing it into a cycle is refuted without removing the
+        // days of the century one at a time
+        constraints.add(new BinaryDateConstraint(49, "<=", 0));
+        SolverResult cycle = CSP.solveDetailed(50, start, end, constraints, new SolverOptions());
+        assertEquals(SolverResult.Status.UNSATISFIABLE, cycle.getStatus());
+        assertTrue(cycle.getStats().getRevisions() < 1000);
+        
+        // Meetings tied by "==" are one meeting, which cannot differ from
+        // itself
+        constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "==", 1),
+                new BinaryDateConstraint(1, "==", 2),
+                new BinaryDateConstraint(2, ">=", 0),
+                new BinaryDateConstraint(0, "!=", 3),
+                new BinaryDateConstraint(3, "!=", 2)
+            )
+        );
+        List<LocalDate> solution = CSP.solve(4, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 2), constraints);
+        testSolution(solution, constraints);
+        constraints.add(new BinaryDateConstraint(2, "!=", 0));
+        assertNull(CSP.solve(4, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 2), constraints));
+    }
+    
+    @Test
+    public void CSP_t24() {
+        // Constraints are equal by value, whichever way round they are written
+        assertEquals(new BinaryDateConstraint(0, "<", 1), new BinaryDateConstraint(1, ">", 0));
+        assertEquals(new BinaryDateConstraint(0, "<", 1).hashCode(), new BinaryDateConstraint(1, ">", 0).hashCode());
+        assertNotEquals(new BinaryDateConstraint(0, "<", 1), new BinaryDateConstraint(0, ">", 1));
+        assertEquals(new UnaryDateConstraint(2, "!=", LocalDate.of(2019, 1, 3)),
+                new UnaryDateConstraint(2, "!=", LocalDate.of(2019, 1, 3)));
+        assertEquals(new AllDifferentDateConstraint(2, 0, 1), new AllDifferentDateConstraint(0, 1, 2));
+        Set<DateConstraint> duplicated = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "!=", 1),
+                new BinaryDateConstraint(1, "!=", 0),
+                new AllDifferentDateConstraint(1, 2, 3),
+                new AllDifferentDateConstraint(3, 2, 1)
+            )
+        );
+        assertEquals(2, duplicated.size());
+        
+        // Unary bounds merge into one interval, and binary constraints on a
+        // pair into the one that allows only what all of them do
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 31);
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2018, 12, 25)),
+                new UnaryDateConstraint(0, ">=", LocalDate.of(2019, 1, 5)),
+                new UnaryDateConstraint(0, "!=", LocalDate.of(2019, 1, 5)),
+                new UnaryDateConstraint(0, "!=", LocalDate.of(2019, 1, 9)),
+                new UnaryDateConstraint(0, "<", LocalDate.of(2019, 1, 20)),
+                new UnaryDateConstraint(0, "<=", LocalDate.of(2019, 2, 1)),
+                new UnaryDateConstraint(1, "<=", LocalDate.of(2019, 1, 31)),
+                new BinaryDateConstraint(0, "<=", 1),
+                new BinaryDateConstraint(1, "!=", 0),
+                new BinaryDateConstraint(1, ">=", 0),
+                new BinaryDateConstraint(2, "!=", 1),
+                new AllDifferentDateConstraint(1, 2, 3)
+            )
+        );
+        Set<DateConstraint> expected = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">=", LocalDate.of(2019, 1, 6)),
+                new UnaryDateConstraint(0, "<=", LocalDate.of(2019, 1, 19)),
+                new UnaryDateConstraint(0, "!=", LocalDate.of(2019, 1, 9)),
+                new BinaryDateConstraint(1, ">", 0),
+                new AllDifferentDateConstraint(1, 2, 3)
+            )
+        );
+        assertEquals(expected, Normalizer.normalize(4, start, end, constraints));
+        List<LocalDate> solution = CSP.solve(4, start, end, constraints);
+        testAllDifferent(solution, constraints);
+        
+        // Contradictions on the face of the constraints are found before
+        // any propagation
+        Set<DateConstraint> opposed = new HashSet<>(constraints);
+        opposed.add(new BinaryDateConstraint(1, "<", 0));
+        Set<DateConstraint> emptied = new HashSet<>(constraints);
+        emptied.add(new UnaryDateConstraint(0, ">", LocalDate.of(2019, 1, 18)));
+        emptied.add(new UnaryDateConstraint(0, "!=", LocalDate.of(2019, 1, 19)));
+        for (Set<DateConstraint> contradictory : Arrays.asList(opposed, emptied)) {
+            SolverResult result = CSP.solveDetailed(4, start, end, contradictory, new SolverOptions());
+            assertEquals(SolverResult.Status.UNSATISFIABLE, result.getStatus());
+            assertEquals(0, result.getStats().getRevisions());
+            assertEquals(0, CSP.countSolutions(4, start, end, contradictory, new SolverOptions()));
+        }
+        Set<DateConstraint> crowded = new HashSet<>(Arrays.asList(new AllDifferentDateConstraint(0, 1, 2, 3)));
+        SolverResult result = CSP.solveDetailed(4, start, start.plusDays(2), crowded, new SolverOptions());
+        assertEquals(SolverResult.Status.UNSATISFIABLE, result.getStatus());
+        assertEquals(0, result.getStats().getRevisions());
+    }
+    
+    @Test
+    public void CSP_t25() throws IOException {
+        // Written problems read back the same, including across chunks
+        CalendarProblem problem = InstanceGenerator.satisfiable(25, 200, 60, 0.05,
+                InstanceGenerator.OperatorMix.MIXED);
+        Path file = Files.createTempFile("csp", ".txt");
+        try {
+            ConstraintFile.write(problem, file);
+            for (int chunkSize : new int[] {64, ConstraintFile.CHUNK_SIZE}) {
+                CalendarProblem read = ConstraintFile.read(file, chunkSize);
+                assertEquals(problem.getMeetingCount(), read.getMeetingCount());
+                assertEquals(problem.getRangeStart(), read.getRangeStart());
+                assertEquals(problem.getRangeEnd(), read.getRangeEnd());
+                assertEquals(problem.getConstraints(), read.getConstraints());
+            }
+            
+            Files.write(file, Arrays.asList(
+                "# Every kind of line",
+                "meetings 4",
+                "",
+                "range 2019-01-01 +10000-01-01\r",
+                "  0 == 2019-01-03",
+                "1\t>=0",
+                "alldiff 3 1 2",
+                "3 != -0001-12-31"
+            ));
+            CalendarProblem read = ConstraintFile.read(file);
+            assertEquals(LocalDate.of(10000, 1, 1), read.getRangeEnd());
+            Set<DateConstraint> expected = new HashSet<>(
+                Arrays.asList(
+                    new UnaryDateConstraint(0, "==", LocalDate.of(2019, 1, 3)),
+                    new BinaryDateConstraint(0, "<=", 1),
+                    new AllDifferentDateConstraint(1, 2, 3),
+                    new UnaryDateConstraint(3, "!=", LocalDate.of(-1, 12, 31))
+                )
+            );
+            assertEquals(expected, read.getConstraints());
+            List<DateConstraint> streamed = new ArrayList<>();
+            ConstraintFile.forEach(file, streamed::add);
+            assertEquals(4, streamed.size());
+            
+            // Errors name the line they are on
+            for (String bad : new String[] {"0 =< 1", "0 == 4", "0 == 2019-02-30", "0 < 1 2", "sometimes 1",
+                    "range 2019-01-02 2019-01-01"}) {
+                Files.write(file, Arrays.asList("meetings 4", bad));
+                try {
+                    ConstraintFile.read(file);
+                    fail(bad);
+                } catch (IOException e) {
+                    assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2: "));
+                }
+            }
+            
+            // ...including a meeting the header rules out only after it
+            Files.write(file, Arrays.asList("0 < 5", "meetings 4", "range 2019-01-01 2019-01-31"));
+            try {
+                ConstraintFile.read(file);
+                fail();
+            } catch (IOException e) {
+                assertEquals("Line 2: invalid variable index 5 on line 1", e.getMessage());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void CSP_t26() {
+        // The same problem, however its constraints are written, is solved once
+        SolutionCache cache = new SolutionCache(2);
+        SolverOptions options = new SolverOptions().setSolutionCache(cache);
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 10);
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new BinaryDateConstraint(0, "<", 1),
+                new BinaryDateConstraint(1, "!=", 2),
+                new UnaryDateConstraint(2, ">", LocalDate.of(2019, 1, 5))
+            )
+        );
+        Set<DateConstraint> rewritten = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(2, ">", LocalDate.of(2019, 1, 5)),
+                new BinaryDateConstraint(2, "!=", 1),
+                new BinaryDateConstraint(1, ">", 0)
+            )
+        );
+        List<LocalDate> solution = CSP.solve(3, start, end, constraints, options);
+        testSolution(solution, constraints);
+        solution.set(0, null);
+        assertEquals(CSP.solve(3, start, end, constraints), CSP.solve(3, start, end, rewritten, options));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        
+        // No solution is cached too, but not an unknown one
+        Set<DateConstraint> cycle = new HashSet<>(constraints);
+        cycle.add(new BinaryDateConstraint(1, "<", 0));
+        assertNull(CSP.solve(3, start, end, cycle, options));
+        assertNull(CSP.solve(3, start, end, cycle, options));
+        assertEquals(2, cache.getHits());
+        SolverOptions limited = new SolverOptions().setSolutionCache(cache).setNodeLimit(0);
+        assertNull(CSP.solve(4, start, end, constraints, limited));
+        assertEquals(0, cache.getEvictions());
+        
+        // The least recently used problem makes room for a new one
+        CSP.solve(3, start, end, new HashSet<>(), options);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(CSP.solve(3, start, end, new HashSet<>(), options));
+        assertNull(CSP.solve(3, start, end, cycle, options));
+        assertEquals(4, cache.getHits());
+        CSP.solve(3, start, end, constraints, options);
+        assertEquals(5, cache.getMisses());
+    }
+    
+    @Test
+    public void CSP_t27() {
+        // Eight interchangeable meetings that must be on different days
+        // within seven: each order of their days is refuted again without
+        // symmetry breaking, and none is with it
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 7);
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < 8; i++) {
+            for (int j = i + 1; j < 8; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        SolverResult plain = CSP.solveDetailed(8, start, end, constraints,
+                new SolverOptions().setPropagation(Propagation.FORWARD_CHECKING));
+        SolverResult broken = CSP.solveDetailed(8, start, end, constraints,
+                new SolverOptions().setPropagation(Propagation.FORWARD_CHECKING).setSymmetryBreaking(true));
+        assertEquals(SolverResult.Status.UNSATISFIABLE, plain.getStatus());
+        assertEquals(SolverResult.Status.UNSATISFIABLE, broken.getStatus());
+        assertTrue(plain.getStats().getNodes() > 1000);
+        assertEquals(0, broken.getStats().getNodes());
+        
+        // Interchangeable meetings are still solved in their own indexing,
+        // optimally, and counting still sees every order
+        constraints.clear();
+        for (int i = 1; i <= 4; i++) {
+            constraints.add(new BinaryDateConstraint(0, "<", i));
+            constraints.add(new UnaryDateConstraint(i, "!=", LocalDate.of(2019, 1, 3)));
+        }
+        constraints.add(new AllDifferentDateConstraint(1, 2, 3, 4));
+        SolverOptions options = new SolverOptions().setPropagation(Propagation.MAC).setSymmetryBreaking(true);
+        List<LocalDate> solution = CSP.solve(5, start, end, constraints, options);
+        testAllDifferent(solution, constraints);
+        SolverResult optimal = CSP.optimize(5, start, end, constraints, Objective.LATEST_DATE, options);
+        assertEquals(LocalDate.of(2019, 1, 6), Collections.max(optimal.getSolution()));
+        assertEquals(SolverResult.Status.OPTIMAL, optimal.getStatus());
+        assertEquals(CSP.countSolutions(5, start, end, constraints, new SolverOptions()),
+                CSP.countSolutions(5, start, end, constraints, options));
+    }
+    
+    @Test
+    public void CSP_t28() {
+        // Meeting 0 is on the first or last day, and either choice rules out
+        // that day for eight other meetings, a tie for LCV: on the first,
+        // meetings 1-8 must all differ on seven days, which forward checking
+        // refutes at length; on the last, everything fits at once
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 9);
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int d = 1; d < 8; d++) {
+            constraints.add(new UnaryDateConstraint(0, "!=", start.plusDays(d)));
+        }
+        for (int i = 1; i <= 8; i++) {
+            constraints.add(new UnaryDateConstraint(i, "<", end));
+            constraints.add(new BinaryDateConstraint(i, "!=", 0));
+            constraints.add(new UnaryDateConstraint(8 + i, ">", start));
+            constraints.add(new BinaryDateConstraint(8 + i, "!=", 0));
+            for (int j = i + 1; j <= 8; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        SolverOptions options = new SolverOptions().setVariableOrder(VariableOrder.MRV)
+                .setValueOrder(ValueOrder.LCV).setPropagation(Propagation.FORWARD_CHECKING);
+        SolverResult trapped = CSP.solveDetailed(17, start, end, constraints, options);
+        testSolution(trapped.getSolution(), constraints);
+        assertTrue(trapped.getStats().getNodes() > 10000);
+        
+        // Restarting soon breaks the tie the other way, whatever the seed,
+        // and the same seed gives the same run
+        options.setRestartStrategy(RestartStrategy.LUBY).setRestartBase(10);
+        for (long seed = 0; seed < 8; seed++) {
+            SolverResult restarted = CSP.solveDetailed(17, start, end, constraints, options.setRandomSeed(seed));
+            testSolution(restarted.getSolution(), constraints);
+            assertTrue(restarted.getStats().getNodes() < 1000);
+            SolverResult again = CSP.solveDetailed(17, start, end, constraints, options);
+            assertEquals(restarted.getSolution(), again.getSolution());
+            assertEquals(restarted.getStats().getNodes(), again.getStats().getNodes());
+            assertEquals(restarted.getStats().getRestarts(), again.getStats().getRestarts());
+        }
+        
+        // Cutoffs keep growing, so a problem without solutions is still
+        // refuted, and counting is unaffected
+        assertEquals(Arrays.asList(1L, 1L, 2L, 1L, 1L, 2L, 4L, 1L),
+                Arrays.asList(RestartStrategy.LUBY.cutoff(0, 1), RestartStrategy.LUBY.cutoff(1, 1),
+                        RestartStrategy.LUBY.cutoff(2, 1), RestartStrategy.LUBY.cutoff(3, 1),
+                        RestartStrategy.LUBY.cutoff(4, 1), RestartStrategy.LUBY.cutoff(5, 1),
+                        RestartStrategy.LUBY.cutoff(6, 1), RestartStrategy.LUBY.cutoff(7, 1)));
+        assertEquals(Long.MAX_VALUE, RestartStrategy.GEOMETRIC.cutoff(200, 100));
+        assertEquals(Long.MAX_VALUE, RestartStrategy.GEOMETRIC.cutoffAfter(1000, 200, 100));
+        assertEquals(Long.MAX_VALUE, RestartStrategy.LUBY.cutoffAfter(1000, 6, Long.MAX_VALUE / 2));
+        assertEquals(1400, RestartStrategy.LUBY.cutoffAfter(1000, 6, 100));
+        constraints.add(new UnaryDateConstraint(0, "==", start));
+        options.setRestartStrategy(RestartStrategy.GEOMETRIC).setRestartBase(1);
+        SolverResult refuted = CSP.solveDetailed(17, start, end, constraints, options);
+        assertEquals(SolverResult.Status.UNSATISFIABLE, refuted.getStatus());
+        assertTrue(refuted.getStats().getRestarts() > 0);
+        Set<DateConstraint> few = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                few.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        assertEquals(9 * 8 * 7 * 6, CSP.countSolutions(4, start, end, few, options));
+    }
+    
+    @Test
+    public void CSP_t29() {
+        // Meetings 0 > 3 > 4 with 0 no later than the 3rd leave each one
+        // day, but backtracking can't tell until it reaches 3 or 4, and
+        // retries the pair 1 != 2 in between for every early day of 0
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 10);
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, "<=", LocalDate.of(2019, 1, 3)),
+                new BinaryDateConstraint(0, ">", 3),
+                new BinaryDateConstraint(3, ">", 4),
+                new BinaryDateConstraint(1, "!=", 2)
+            )
+        );
+        long[] nodes = new long[2];
+        for (int tightened = 0; tightened < 2; tightened++) {
+            ConstraintNetwork network = new ConstraintNetwork(5, start, end, constraints);
+            DateDomain[] domains = CSP.makeDomains(network);
+            assertTrue(new Propagator(network, domains).nodeConsistency());
+            if (tightened == 1) {
+                assertTrue(TemporalNetwork.tighten(network, domains));
+                assertEquals(1, domains[0].size());
+                assertEquals(1, domains[3].size());
+                assertEquals(1, domains[4].size());
+            }
+            Search search = new Search(network, domains, new SolverOptions());
+            assertNotNull(search.solve());
+            SolverStats stats = new SolverStats();
+            search.addStats(stats);
+            nodes[tightened] = stats.getNodes();
+        }
+        
+        // Tightening leaves only the "!=" pair to search, where the bounds
+        // alone take thousands of nodes
+        assertTrue(nodes[0] > 1000);
+        assertTrue(nodes[1] < 10);
+    }
+    
+    @Test
+    public void CSP_t30() {
+        // A domain of 130 days spans three words; removals on either side of
+        // each word boundary keep the cached bounds and size exact
+        DateDomain domain = new DateDomain(130);
+        assertEquals(130, domain.size());
+        assertEquals(0, domain.min());
+        assertEquals(129, domain.max());
+        assertFalse(domain.contains(130));
+        assertTrue(domain.remove(63));
+        assertTrue(domain.remove(64));
+        assertFalse(domain.remove(64));
+        assertTrue(domain.remove(127));
+        assertEquals(127, domain.size());
+        assertFalse(domain.contains(63));
+        assertTrue(domain.contains(62));
+        assertTrue(domain.contains(65));
+        assertEquals(65, domain.next(63));
+        assertEquals(62, domain.prev(64));
+        assertEquals(128, domain.next(127));
+        assertEquals(63, domain.countBelow(65));
+        
+        DateDomain copy = new DateDomain(domain);
+        assertTrue(domain.removeBelow(64));
+        assertEquals(65, domain.min());
+        assertTrue(domain.removeAbove(127));
+        assertEquals(126, domain.max());
+        assertEquals(62, domain.size());
+        assertTrue(copy.contains(0));
+        assertEquals(127, copy.size());
+        assertTrue(domain.removeAbove(64));
+        assertTrue(domain.isEmpty());
+        assertEquals(-1, domain.min());
+        assertEquals(-1, domain.max());
+        
+        // Removals recorded on a trail are undone exactly, cached bounds
+        // and size included, back to each mark in turn
+        Trail trail = new Trail();
+        copy.setTrail(trail);
+        int outer = trail.mark();
+        copy.removeBelow(64);
+        int inner = trail.mark();
+        copy.remove(129);
+        copy.removeAbove(100);
+        assertEquals(65, copy.min());
+        assertEquals(100, copy.max());
+        trail.undoTo(inner);
+        assertEquals(65, copy.min());
+        assertEquals(129, copy.max());
+        assertEquals(64, copy.size());
+        trail.undoTo(outer);
+        assertEquals(0, copy.min());
+        assertEquals(129, copy.max());
+        assertEquals(127, copy.size());
+        assertFalse(copy.contains(64));
+        assertTrue(copy.contains(129));
+    }
+    
+    @Test
+    public void CSP_t31() {
+        // AC-3 alone, without temporal tightening: bounds travel both ways
+        // along the chain 0 < 1 < 2, written from either end, and on to 3
+        // through 3 == 1; meeting 5's single day is taken from 4 by 4 != 5
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 10);
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, ">", LocalDate.of(2019, 1, 1)),
+                new UnaryDateConstraint(2, "<=", LocalDate.of(2019, 1, 5)),
+                new UnaryDateConstraint(5, "==", LocalDate.of(2019, 1, 4)),
+                new BinaryDateConstraint(1, ">", 0),
+                new BinaryDateConstraint(1, "<", 2),
+                new BinaryDateConstraint(3, "==", 1),
+                new BinaryDateConstraint(4, "!=", 5)
+            )
+        );
+        ConstraintNetwork network = new ConstraintNetwork(6, start, end, constraints);
+        DateDomain[] domains = CSP.makeDomains(network);
+        Propagator propagator = new Propagator(network, domains);
+        assertTrue(propagator.nodeConsistency());
+        assertTrue(propagator.arcConsistency());
+        int[][] bounds = {{1, 2}, {2, 3}, {3, 4}, {2, 3}, {0, 9}, {3, 3}};
+        for (int v = 0; v < bounds.length; v++) {
+            assertEquals(bounds[v][0], domains[v].min());
+            assertEquals(bounds[v][1], domains[v].max());
+        }
+        assertEquals(9, domains[4].size());
+        assertFalse(domains[4].contains(3));
+        
+        // Emptying a domain anywhere along the chain is found from the
+        // other end
+        constraints.add(new UnaryDateConstraint(0, ">=", LocalDate.of(2019, 1, 4)));
+        network = new ConstraintNetwork(6, start, end, constraints);
+        domains = CSP.makeDomains(network);
+        propagator = new Propagator(network, domains);
+        assertTrue(propagator.nodeConsistency());
+        assertFalse(propagator.arcConsistency());
+    }
+    
+    @Test
+    public void CSP_t32() {
+        // Meeting 0 has one unary constraint and binary ones to 1, 2 and 3,
+        // among a thousand constraints between other meetings: checking an
+        // assignment of 0 tests only its own, against assigned neighbours
+        LocalDate start = LocalDate.of(2019, 1, 1), end = LocalDate.of(2019, 1, 10);
+        Set<DateConstraint> constraints = new HashSet<>(
+            Arrays.asList(
+                new UnaryDateConstraint(0, "!=", LocalDate.of(2019, 1, 5)),
+                new BinaryDateConstraint(0, "<", 1),
+                new BinaryDateConstraint(2, "!=", 0),
+                new BinaryDateConstraint(0, ">", 3)
+            )
+        );
+        for (int i = 4; i < 50; i++) {
+            for (int j = i + 1; j < 50 && constraints.size() < 1004; j++) {
+                constraints.add(new BinaryDateConstraint(i, "!=", j));
+            }
+        }
+        ConstraintNetwork network = new ConstraintNetwork(50, start, end, constraints);
+        assertEquals(1, network.unaryOp[0].length);
+        assertEquals(3, network.outgoing[0].length);
+        assertEquals(3, network.incoming[0].length);
+        Propagator propagator = new Propagator(network, CSP.makeDomains(network));
+        int[] assignment = Search.unassigned(50);
+        assignment[1] = 6;
+        assignment[2] = 2;
+        assignment[0] = 3;
+        assertTrue(propagator.constraintCheck(0, assignment));
+        assertEquals(3, propagator.checks);
+        
+        // A conflict is blamed on the neighbour it is with
+        assignment[0] = 2;
+        assertFalse(propagator.constraintCheck(0, assignment));
+        assertEquals(2, propagator.culprit());
+    }
+    
+    @Test
+    public void CSP_t33() {
+        // Each compiled Operator agrees with the String semantics that
+        // testSolution applies, on offsets and dates alike, on every
+        // ordering of its operands
+        LocalDate day = LocalDate.of(2019, 1, 2);
+        for (String symbol : new String[] {"==", "!=", "<", "<=", ">", ">="}) {
+            Operator op = Operator.of(symbol);
+            assertEquals(symbol, op.symbol);
+            for (int right = 0; right < 3; right++) {
+                LocalDate leftDate = day, rightDate = LocalDate.of(2019, 1, 1 + right);
+                boolean expected = false;
+                switch (symbol) {
+                case "==": expected = leftDate.isEqual(rightDate); break;
+                case "!=": expected = !leftDate.isEqual(rightDate); break;
+                case ">":  expected = leftDate.isAfter(rightDate); break;
+                case "<":  expected = leftDate.isBefore(rightDate); break;
+                case ">=": expected = !leftDate.isBefore(rightDate); break;
+                case "<=": expected = !leftDate.isAfter(rightDate); break;
+                }
+                assertEquals(symbol + " " + right, expected, op.test(1, right));
+                assertEquals(symbol + " " + right, expected, op.test(leftDate, rightDate));
+                assertEquals(expected, op.converse().test(right, 1));
+            }
+        }
+        assertEquals(Operator.LT, Operator.LE.and(Operator.NE));
+        assertNull(Operator.LT.and(Operator.GE));
+        
+        // Compiling keeps each constraint's meaning from both its meetings'
+        // sides, whichever way round it was written
+        ConstraintNetwork network = new ConstraintNetwork(2, day, day.plusDays(9),
+                new HashSet<>(Arrays.asList(new BinaryDateConstraint(1, ">=", 0))));
+        for (int a = 0; a < network.arcCount(); a++) {
+            int tail = network.arcTail[a];
+            for (int t = 0; t < 3; t++) {
+                for (int h = 0; h < 3; h++) {
+                    int zero = (tail == 0) ? t : h, one = (tail == 0) ? h : t;
+                    assertEquals(one >= zero, network.arcOp[a].test(t, h));
+                }
+            }
+        }
+    }
+    
 }
@@ -0,0 +1,112 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * CalendarProblem: one complete input to the solver, i.e. the arguments of
+ * {@link CSP#solve(int, LocalDate, LocalDate, Set)} bundled into an
+ * immutable value that can be queued, batched and passed between services.
+ * Problems are equal when they have the same number of meetings, range and
+ * set of constraints, so one can key a cache of their solutions.
+ */
+public final class CalendarProblem {
+
+    private final int nMeetings;
+    private final LocalDate rangeStart;
+    private final LocalDate rangeEnd;
+    private final Set<DateConstraint> constraints;
+
+    /** Hash code, computed on first use as it takes hashing every constraint */
+    private int hash;
+
+    /**
+     * @param nMeetings The number of meetings that must be scheduled, indexed
+     *        from 0 to n-1
+     * @param rangeStart The start date (inclusive) of every meeting's domain
+     * @param rangeEnd The end date (inclusive) of every meeting's domain
+     * @param constraints Date constraints on the meeting times; copied
+     */
+    public CalendarProblem (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+            Set<DateConstraint> constraints) {
+        this(new HashSet<>(constraints), nMeetings, rangeStart, rangeEnd);
+    }
+
+    /**
+     * @param constraints Date constraints on the meeting times; kept as is
+     */
+    private CalendarProblem (Set<DateConstraint> constraints, int nMeetings, LocalDate rangeStart,
+            LocalDate rangeEnd) {
+        if (nMeetings < 0) {
+            throw new IllegalArgumentException("Invalid number of meetings");
+        }
+        this.nMeetings = nMeetings;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.constraints = Collections.unmodifiableSet(constraints);
+    }
+
+    /**
+     * Makes a problem of a set of constraints built for it alone, such as
+     * one just read from a file, which the problem takes over without
+     * copying; the caller must not modify the set afterwards.
+     */
+    static CalendarProblem adopt (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+            Set<DateConstraint> constraints) {
+        return new CalendarProblem(constraints, nMeetings, rangeStart, rangeEnd);
+    }
+
+    public int getMeetingCount () {
+        return nMeetings;
+    }
+
+    public LocalDate getRangeStart () {
+        return rangeStart;
+    }
+
+    public LocalDate getRangeEnd () {
+        return rangeEnd;
+    }
+
+    /**
+     * @return An unmodifiable view of the problem's constraints
+     */
+    public Set<DateConstraint> getConstraints () {
+        return constraints;
+    }
+
+    @Override
+    public boolean equals (Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CalendarProblem)) {
+            return false;
+        }
+        CalendarProblem p = (CalendarProblem) other;
+        return nMeetings == p.nMeetings && rangeStart.equals(p.rangeStart) && rangeEnd.equals(p.rangeEnd)
+                && hashCode() == p.hashCode() && constraints.equals(p.constraints);
+    }
+
+    /**
+     * Combines the constraints' hash codes by sum, as a Set does, so that
+     * it does not depend on the order they are iterated in.
+     */
+    @Override
+    public int hashCode () {
+        int h = hash;
+        if (h == 0) {
+            h = ((31 * nMeetings + rangeStart.hashCode()) * 31 + rangeEnd.hashCode()) * 31 + constraints.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString () {
+        return nMeetings + " meetings, " + rangeStart + " to " + rangeEnd + ", " + constraints;
+    }
+
+}
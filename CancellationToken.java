@@ -0,0 +1,22 @@
+package csp;
+
+/**
+ * CancellationToken: lets another thread stop a solve early, e.g. when the
+ * request it serves is abandoned. Pass it to
+ * {@link SolverOptions#setCancellationToken(CancellationToken)}; once
+ * cancel() is called, every solve using it stops within a few hundred
+ * search nodes and reports an UNKNOWN outcome. A token stays cancelled.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel () {
+        cancelled = true;
+    }
+
+    public boolean isCancelled () {
+        return cancelled;
+    }
+
+}
@@ -0,0 +1,377 @@
+package csp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * ConstraintFile: reads and writes CalendarProblems as text, one line per
+ * constraint in the form its toString() gives, after a header giving the
+ * number of meetings and the range:
+ * <pre>
+ * # comment
+ * meetings 6
+ * range 2019-01-01 2019-01-31
+ * 0 == 2019-01-03
+ * 3 &lt;= 5
+ * alldiff 0 2 5
+ * </pre>
+ * Blank lines and lines starting with '#' are skipped, and lines may end in
+ * "\r\n". Files are read through memory-mapped chunks, parsing the bytes in
+ * place rather than decoding each line into a String, so the only objects
+ * built per line are the constraint itself and, for a date not met
+ * recently, its LocalDate.
+ */
+public final class ConstraintFile {
+
+    /** Bytes mapped at a time; a chunk is remapped from its last whole line */
+    static final int CHUNK_SIZE = 1 << 26;
+
+    private ConstraintFile () {
+    }
+
+    /**
+     * @param file A file with a "meetings" and a "range" header
+     * @return The problem the file describes
+     * @throws IOException If the file cannot be read, or some line of it is
+     *         not a header or a valid constraint, or a header is missing;
+     *         a constraint is checked against the "meetings" header wherever
+     *         it is in the file, and the range must not end before it starts
+     */
+    public static CalendarProblem read (Path file) throws IOException {
+        return read(file, CHUNK_SIZE);
+    }
+
+    static CalendarProblem read (Path file, int chunkSize) throws IOException {
+        Set<DateConstraint> constraints = new HashSet<>();
+        Parser parser = new Parser(constraints::add);
+        parser.parse(file, chunkSize);
+        if (parser.nMeetings < 0) {
+            throw new IOException("Missing meetings header");
+        }
+        if (parser.rangeStart == null) {
+            throw new IOException("Missing range header");
+        }
+        return CalendarProblem.adopt(parser.nMeetings, parser.rangeStart, parser.rangeEnd, constraints);
+    }
+
+    /**
+     * Passes each constraint of a file to the given consumer as it is read,
+     * so that a file too large to hold as a Set can still be processed.
+     * Headers are optional, but if there is a "meetings" header, every
+     * constraint is checked against it, including any before it, which
+     * the consumer will then already have received.
+     * @param file A file of constraints
+     * @param sink Receives every constraint, in the order of the file
+     * @throws IOException If the file cannot be read, or some line of it is
+     *         not a header or a valid constraint
+     */
+    public static void forEach (Path file, Consumer<? super DateConstraint> sink) throws IOException {
+        new Parser(sink).parse(file, CHUNK_SIZE);
+    }
+
+    /**
+     * Writes the problem in the form read() reads.
+     * @param file The file to create or overwrite
+     */
+    public static void write (CalendarProblem problem, Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("meetings " + problem.getMeetingCount());
+            out.newLine();
+            out.write("range " + problem.getRangeStart() + " " + problem.getRangeEnd());
+            out.newLine();
+            for (DateConstraint d : problem.getConstraints()) {
+                out.write(d.toString());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Parser: the state of reading one file, with a cursor over the bytes
+     * of its current line.
+     */
+    private static final class Parser {
+
+        private static final byte[] MEETINGS = "meetings".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] RANGE = "range".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[] ALLDIFF = "alldiff".getBytes(StandardCharsets.US_ASCII);
+
+        /** Recently parsed dates, at the slot of their year, month and day */
+        private static final int CACHE_SIZE = 1 << 12;
+
+        private final Consumer<? super DateConstraint> sink;
+        private final LocalDate[] dates = new LocalDate[CACHE_SIZE];
+        private int[] allDiff = new int[16];
+
+        int nMeetings = -1;
+        LocalDate rangeStart;
+        LocalDate rangeEnd;
+
+        /** Highest meeting read so far, and its line, to check a later "meetings" header against */
+        private int highestMeeting = -1;
+        private long highestLine;
+
+        private ByteBuffer line;
+        private int pos;
+        private int end;
+        private long lineNumber;
+
+        Parser (Consumer<? super DateConstraint> sink) {
+            this.sink = sink;
+        }
+
+        void parse (Path file, int chunkSize) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    int length = (int) Math.min(chunkSize, size - position);
+                    ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    boolean last = position + length == size;
+                    int start = 0;
+                    for (int i = 0; i < length; i++) {
+                        if (chunk.get(i) == '\n') {
+                            parseLine(chunk, start, i);
+                            start = i + 1;
+                        }
+                    }
+                    if (last && start < length) {
+                        parseLine(chunk, start, length);
+                        start = length;
+                    } else if (start == 0) {
+                        throw error("line longer than " + chunkSize + " bytes");
+                    }
+                    position += start;
+                }
+            }
+        }
+
+        private void parseLine (ByteBuffer chunk, int from, int to) throws IOException {
+            line = chunk;
+            pos = from;
+            end = to;
+            lineNumber++;
+            skipSpaces();
+            if (pos == end || line.get(pos) == '#') {
+                return;
+            }
+            try {
+                if (isDigit(line.get(pos))) {
+                    parseConstraint();
+                } else if (keyword(ALLDIFF)) {
+                    parseAllDifferent();
+                } else if (keyword(MEETINGS)) {
+                    nMeetings = parseInt();
+                    if (highestMeeting >= nMeetings) {
+                        throw error("invalid variable index " + highestMeeting + " on line " + highestLine);
+                    }
+                } else if (keyword(RANGE)) {
+                    rangeStart = parseDate();
+                    rangeEnd = parseDate();
+                    if (rangeEnd.isBefore(rangeStart)) {
+                        throw error("range ends before it starts");
+                    }
+                } else {
+                    throw error("unknown line");
+                }
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw error(e.getMessage());
+            }
+            skipSpaces();
+            if (pos != end) {
+                throw error("unexpected text after the constraint");
+            }
+        }
+
+        private void parseConstraint () throws IOException {
+            int left = parseMeeting();
+            skipSpaces();
+            String op = parseOperator();
+            skipSpaces();
+            if (pos == end) {
+                throw error("missing right operand");
+            }
+            byte first = line.get(pos);
+            if (first == '+' || first == '-' || isDate()) {
+                sink.accept(new UnaryDateConstraint(left, op, parseDate()));
+            } else {
+                sink.accept(new BinaryDateConstraint(left, op, parseMeeting()));
+            }
+        }
+
+        private void parseAllDifferent () throws IOException {
+            int n = 0;
+            skipSpaces();
+            while (pos < end) {
+                if (n == allDiff.length) {
+                    allDiff = Arrays.copyOf(allDiff, 2 * n);
+                }
+                allDiff[n++] = parseMeeting();
+                skipSpaces();
+            }
+            sink.accept(new AllDifferentDateConstraint(Arrays.copyOf(allDiff, n)));
+        }
+
+        /**
+         * @return The operator's symbol, as the interned constant a
+         *         DateConstraint holds
+         */
+        private String parseOperator () throws IOException {
+            byte first = (pos < end) ? line.get(pos++) : 0;
+            boolean equals = pos < end && line.get(pos) == '=';
+            if (equals) {
+                pos++;
+            }
+            if (first == '<') {
+                return (equals ? Operator.LE : Operator.LT).symbol;
+            }
+            if (first == '>') {
+                return (equals ? Operator.GE : Operator.GT).symbol;
+            }
+            if (equals && first == '=') {
+                return Operator.EQ.symbol;
+            }
+            if (equals && first == '!') {
+                return Operator.NE.symbol;
+            }
+            throw error("invalid constraint operator");
+        }
+
+        private int parseMeeting () throws IOException {
+            int meeting = parseInt();
+            if (nMeetings >= 0 && meeting >= nMeetings) {
+                throw error("invalid variable index " + meeting);
+            }
+            if (meeting > highestMeeting) {
+                highestMeeting = meeting;
+                highestLine = lineNumber;
+            }
+            return meeting;
+        }
+
+        private int parseInt () throws IOException {
+            skipSpaces();
+            long value = parseDigits(10);
+            if (value > Integer.MAX_VALUE) {
+                throw error("number out of range");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Parses an ISO date as LocalDate.toString() writes it, reusing the
+         * LocalDate last parsed for the same day if it is still cached.
+         */
+        private LocalDate parseDate () throws IOException {
+            skipSpaces();
+            int sign = 1;
+            if (pos < end && (line.get(pos) == '+' || line.get(pos) == '-')) {
+                sign = (line.get(pos++) == '-') ? -1 : 1;
+            }
+            long year = sign * parseDigits(10);
+            expect('-');
+            int month = (int) parseDigits(2);
+            expect('-');
+            int day = (int) parseDigits(2);
+            if (year < LocalDate.MIN.getYear() || year > LocalDate.MAX.getYear()) {
+                throw error("year out of range");
+            }
+            int slot = (int) ((year * 31 * 12 + month * 31 + day) & (CACHE_SIZE - 1));
+            LocalDate cached = dates[slot];
+            if (cached == null || cached.getYear() != year || cached.getMonthValue() != month
+                    || cached.getDayOfMonth() != day) {
+                cached = LocalDate.of((int) year, month, day);
+                dates[slot] = cached;
+            }
+            return cached;
+        }
+
+        /**
+         * @param maxDigits Most digits to take
+         * @return The value of the one or more digits at the cursor
+         */
+        private long parseDigits (int maxDigits) throws IOException {
+            int start = pos;
+            long value = 0;
+            while (pos < end && pos - start < maxDigits && isDigit(line.get(pos))) {
+                value = 10 * value + (line.get(pos++) - '0');
+            }
+            if (pos == start) {
+                throw error("expected a number");
+            }
+            return value;
+        }
+
+        /**
+         * @return Whether the digits at the cursor are followed by a '-',
+         *         i.e. are the year of a date rather than a meeting
+         */
+        private boolean isDate () {
+            int i = pos;
+            while (i < end && isDigit(line.get(i))) {
+                i++;
+            }
+            return i < end && line.get(i) == '-';
+        }
+
+        /**
+         * Consumes the given word if it is at the cursor, followed by a space
+         * or the end of the line.
+         */
+        private boolean keyword (byte[] word) {
+            if (end - pos < word.length) {
+                return false;
+            }
+            for (int i = 0; i < word.length; i++) {
+                if (line.get(pos + i) != word[i]) {
+                    return false;
+                }
+            }
+            int after = pos + word.length;
+            if (after < end && !isSpace(line.get(after))) {
+                return false;
+            }
+            pos = after;
+            return true;
+        }
+
+        private void expect (char c) throws IOException {
+            if (pos == end || line.get(pos) != c) {
+                throw error("expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private void skipSpaces () {
+            while (pos < end && isSpace(line.get(pos))) {
+                pos++;
+            }
+        }
+
+        private static boolean isDigit (byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private static boolean isSpace (byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+
+        private IOException error (String message) {
+            return new IOException("Line " + lineNumber + ": " + message);
+        }
+
+    }
+
+}
@@ -0,0 +1,441 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ConstraintNetwork: the constraints of one solve, compiled into primitive
+ * arrays and indexed by meeting variable so that propagation and search only
+ * ever look at the constraints that an assignment or domain change can
+ * affect. Date literals become day offsets from rangeStart and operator
+ * strings become Operators. The constraints are normalized first, so
+ * each meeting has at most one interval of dates and each pair of meetings
+ * at most one binary constraint, and if asked, interchangeable meetings are
+ * ordered. Each BinaryDateConstraint is split into two
+ * directed arcs, arc 2c constraining its L_VAL and arc 2c + 1 (with the
+ * converse operator) constraining its R_VAL. AllDifferentDateConstraints
+ * are kept whole, as lists of their meetings, for AllDifferent to propagate.
+ * A network can be decomposed into the networks of its connected
+ * components, whose variables are numbered from 0 and each stand for one or
+ * more meetings of the whole problem.
+ */
+final class ConstraintNetwork {
+
+    final int nMeetings;
+
+    /** Epoch day of rangeStart, i.e. of offset 0 */
+    final long origin;
+
+    /** Number of days in the scheduling range */
+    final int width;
+
+    /** Unary constraints on each variable: "v unaryOp[v][k] unaryDay[v][k]" */
+    final Operator[][] unaryOp;
+    final int[][] unaryDay;
+
+    /** Arc a reads "arcTail[a] arcOp[a] arcHead[a]" */
+    final int[] arcTail;
+    final int[] arcHead;
+    final Operator[] arcOp;
+
+    /** Arcs whose tail is each variable, i.e. its binary constraints */
+    final int[][] outgoing;
+
+    /** Arcs whose head is each variable, i.e. those to revisit when it shrinks */
+    final int[][] incoming;
+
+    /** Meetings of each AllDifferentDateConstraint, in increasing order */
+    final int[][] allDiffVars;
+
+    /** AllDifferent constraints that each variable is one of the meetings of */
+    final int[][] allDiffOf;
+
+    /** Meetings of the whole problem that each variable stands for, or null if just itself */
+    private final int[][] meetings;
+
+    /**
+     * True if normalizing the constraints showed that they have no
+     * solution, in which case none of them are compiled, and no domains
+     * need to be built to know it
+     */
+    final boolean contradictory;
+
+    ConstraintNetwork (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints) {
+        this(nMeetings, rangeStart, rangeEnd, constraints, false);
+    }
+
+    /**
+     * @param breakSymmetry Whether to order interchangeable meetings, which
+     *        keeps some solution if there is any, but not every solution
+     */
+    ConstraintNetwork (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd, Set<DateConstraint> constraints,
+            boolean breakSymmetry) {
+        this.nMeetings = nMeetings;
+        origin = rangeStart.toEpochDay();
+        width = (int) Math.max(0, Math.min(Integer.MAX_VALUE - 1, rangeEnd.toEpochDay() - origin + 1));
+        meetings = null;
+        Set<DateConstraint> normalized = Normalizer.normalize(nMeetings, rangeStart, rangeEnd, constraints);
+        contradictory = (normalized == null);
+        if (contradictory) {
+            normalized = Collections.emptySet();
+        } else if (breakSymmetry) {
+            Symmetry.breakSymmetry(nMeetings, normalized);
+        }
+
+        List<UnaryDateConstraint> unaries = new ArrayList<>();
+        List<BinaryDateConstraint> binaries = new ArrayList<>();
+        List<AllDifferentDateConstraint> allDiffs = new ArrayList<>();
+        int[] unaryCount = new int[nMeetings];
+        int[] arcCount = new int[nMeetings];
+        int[] allDiffCount = new int[nMeetings];
+        for (DateConstraint d : normalized) {
+            if (d instanceof AllDifferentDateConstraint) {
+                AllDifferentDateConstraint a = (AllDifferentDateConstraint) d;
+                allDiffs.add(a);
+                for (int m : a.MEETINGS) {
+                    allDiffCount[m]++;
+                }
+            } else if (d.arity() == 1) {
+                unaries.add((UnaryDateConstraint) d);
+                unaryCount[d.L_VAL]++;
+            } else {
+                BinaryDateConstraint b = (BinaryDateConstraint) d;
+                binaries.add(b);
+                arcCount[b.L_VAL]++;
+                arcCount[b.R_VAL]++;
+            }
+        }
+
+        unaryOp = new Operator[nMeetings][];
+        unaryDay = new int[nMeetings][];
+        outgoing = new int[nMeetings][];
+        incoming = new int[nMeetings][];
+        allDiffOf = new int[nMeetings][];
+        for (int v = 0; v < nMeetings; v++) {
+            allDiffOf[v] = new int[allDiffCount[v]];
+            allDiffCount[v] = 0;
+            unaryOp[v] = new Operator[unaryCount[v]];
+            unaryDay[v] = new int[unaryCount[v]];
+            outgoing[v] = new int[arcCount[v]];
+            incoming[v] = new int[arcCount[v]];
+            unaryCount[v] = 0;
+            arcCount[v] = 0;
+        }
+        for (UnaryDateConstraint u : unaries) {
+            int k = unaryCount[u.L_VAL]++;
+            unaryOp[u.L_VAL][k] = Operator.of(u.OP);
+            unaryDay[u.L_VAL][k] = toOffset(u.R_VAL);
+        }
+
+        int nArcs = 2 * binaries.size();
+        arcTail = new int[nArcs];
+        arcHead = new int[nArcs];
+        arcOp = new Operator[nArcs];
+        for (int c = 0; c < binaries.size(); c++) {
+            BinaryDateConstraint b = binaries.get(c);
+            Operator op = Operator.of(b.OP);
+            arcTail[2 * c] = b.L_VAL;
+            arcHead[2 * c] = b.R_VAL;
+            arcOp[2 * c] = op;
+            arcTail[2 * c + 1] = b.R_VAL;
+            arcHead[2 * c + 1] = b.L_VAL;
+            arcOp[2 * c + 1] = op.converse();
+        }
+        for (int a = 0; a < nArcs; a++) {
+            int k = arcCount[arcTail[a]]++;
+            outgoing[arcTail[a]][k] = a;
+            incoming[arcTail[a]][k] = a ^ 1;
+        }
+
+        allDiffVars = new int[allDiffs.size()][];
+        for (int c = 0; c < allDiffs.size(); c++) {
+            List<Integer> meetings = allDiffs.get(c).MEETINGS;
+            allDiffVars[c] = new int[meetings.size()];
+            for (int i = 0; i < meetings.size(); i++) {
+                int m = meetings.get(i);
+                allDiffVars[c][i] = m;
+                allDiffOf[m][allDiffCount[m]++] = c;
+            }
+        }
+    }
+
+    /**
+     * Constructs the network of one connected component of another, in
+     * which each variable stands for one or more meetings that are equal.
+     * @param whole The network being decomposed
+     * @param members Variables of whole that each variable stands for, in
+     *        increasing order
+     * @param local Variable of the component that each variable of whole
+     *        (in the component) is merged into
+     */
+    private ConstraintNetwork (ConstraintNetwork whole, int[][] members, int[] local) {
+        nMeetings = members.length;
+        origin = whole.origin;
+        width = whole.width;
+        meetings = members;
+        contradictory = false;
+
+        // Each binary constraint and AllDifferent constraint is taken from
+        // the variable of whole that is its L_VAL or its lowest meeting; a
+        // binary constraint within a variable always holds, as decompose()
+        // checked, so is dropped
+        int nArcs = 0;
+        int nAllDiffs = 0;
+        int[] unaryCount = new int[nMeetings];
+        int[] arcCount = new int[nMeetings];
+        int[] allDiffCount = new int[nMeetings];
+        for (int v = 0; v < nMeetings; v++) {
+            for (int m : members[v]) {
+                unaryCount[v] += whole.unaryOp[m].length;
+                for (int a : whole.outgoing[m]) {
+                    int head = local[whole.arcHead[a]];
+                    if ((a & 1) == 0 && head != v) {
+                        arcCount[v]++;
+                        arcCount[head]++;
+                        nArcs += 2;
+                    }
+                }
+                for (int c : whole.allDiffOf[m]) {
+                    if (whole.allDiffVars[c][0] == m) {
+                        for (int other : whole.allDiffVars[c]) {
+                            allDiffCount[local[other]]++;
+                        }
+                        nAllDiffs++;
+                    }
+                }
+            }
+        }
+        unaryOp = new Operator[nMeetings][];
+        unaryDay = new int[nMeetings][];
+        outgoing = new int[nMeetings][];
+        incoming = new int[nMeetings][];
+        allDiffOf = new int[nMeetings][];
+        for (int v = 0; v < nMeetings; v++) {
+            unaryOp[v] = new Operator[unaryCount[v]];
+            unaryDay[v] = new int[unaryCount[v]];
+            outgoing[v] = new int[arcCount[v]];
+            incoming[v] = new int[arcCount[v]];
+            allDiffOf[v] = new int[allDiffCount[v]];
+            unaryCount[v] = 0;
+            arcCount[v] = 0;
+            allDiffCount[v] = 0;
+        }
+        arcTail = new int[nArcs];
+        arcHead = new int[nArcs];
+        arcOp = new Operator[nArcs];
+        allDiffVars = new int[nAllDiffs][];
+        nArcs = 0;
+        nAllDiffs = 0;
+        for (int v = 0; v < nMeetings; v++) {
+            for (int m : members[v]) {
+                for (int k = 0; k < whole.unaryOp[m].length; k++) {
+                    unaryOp[v][unaryCount[v]] = whole.unaryOp[m][k];
+                    unaryDay[v][unaryCount[v]++] = whole.unaryDay[m][k];
+                }
+                for (int a : whole.outgoing[m]) {
+                    int head = local[whole.arcHead[a]];
+                    if ((a & 1) == 0 && head != v) {
+                        arcTail[nArcs] = v;
+                        arcHead[nArcs] = head;
+                        arcOp[nArcs] = whole.arcOp[a];
+                        arcTail[nArcs + 1] = head;
+                        arcHead[nArcs + 1] = v;
+                        arcOp[nArcs + 1] = whole.arcOp[a ^ 1];
+                        nArcs += 2;
+                    }
+                }
+                for (int c : whole.allDiffOf[m]) {
+                    if (whole.allDiffVars[c][0] == m) {
+                        int[] vars = new int[whole.allDiffVars[c].length];
+                        for (int i = 0; i < vars.length; i++) {
+                            vars[i] = local[whole.allDiffVars[c][i]];
+                            allDiffOf[vars[i]][allDiffCount[vars[i]]++] = nAllDiffs;
+                        }
+                        allDiffVars[nAllDiffs++] = vars;
+                    }
+                }
+            }
+        }
+        for (int a = 0; a < nArcs; a++) {
+            int k = arcCount[arcTail[a]]++;
+            outgoing[arcTail[a]][k] = a;
+            incoming[arcTail[a]][k] = a ^ 1;
+        }
+    }
+
+    /**
+     * Decomposes the network for searching. Meetings that "==" constraints
+     * tie together are merged into one variable, as they must all be on the
+     * same day, and the merged network is split into its connected
+     * components: groups of variables linked to each other by binary or
+     * AllDifferent constraints, but not to any variable outside the group.
+     * Must only be called on the network of the whole problem.
+     * @return The network of each component, ordered by lowest meeting; just
+     *         this network if it is connected and has no "==" constraints; or
+     *         null if some merged meetings must be on different days, i.e.
+     *         there is no solution
+     */
+    ConstraintNetwork[] decompose () {
+        int[] parent = new int[nMeetings];
+        for (int v = 0; v < nMeetings; v++) {
+            parent[v] = v;
+        }
+        boolean merged = false;
+        for (int a = 0; a < arcTail.length; a += 2) {
+            if (arcOp[a] == Operator.EQ) {
+                union(parent, arcTail[a], arcHead[a]);
+                merged = true;
+            }
+        }
+        int[] classOf = new int[nMeetings];
+        for (int v = 0; v < nMeetings; v++) {
+            classOf[v] = find(parent, v);
+        }
+        if (merged) {
+            for (int a = 0; a < arcTail.length; a += 2) {
+                if (classOf[arcTail[a]] == classOf[arcHead[a]] && !arcOp[a].test(0, 0)) {
+                    return null;
+                }
+            }
+            int[] seen = new int[nMeetings];
+            for (int c = 0; c < allDiffVars.length; c++) {
+                for (int v : allDiffVars[c]) {
+                    if (seen[classOf[v]] == c + 1) {
+                        return null;
+                    }
+                    seen[classOf[v]] = c + 1;
+                }
+            }
+        }
+
+        for (int a = 0; a < arcTail.length; a += 2) {
+            union(parent, arcTail[a], arcHead[a]);
+        }
+        for (int[] vars : allDiffVars) {
+            for (int v : vars) {
+                union(parent, vars[0], v);
+            }
+        }
+
+        // Number the components by lowest meeting, then the variables within
+        // each component by lowest meeting, counting the meetings of each
+        int[] component = new int[nMeetings];
+        int[] local = new int[nMeetings];
+        int[] size = new int[nMeetings];
+        int[] classSize = new int[nMeetings];
+        int nComponents = 0;
+        for (int v = 0; v < nMeetings; v++) {
+            int root = find(parent, v);
+            component[v] = (root == v) ? nComponents++ : component[root];
+            local[v] = (classOf[v] == v) ? size[component[v]]++ : local[classOf[v]];
+            classSize[classOf[v]]++;
+        }
+        if (nComponents <= 1 && !merged) {
+            return new ConstraintNetwork[] {this};
+        }
+        int[][][] members = new int[nComponents][][];
+        for (int k = 0; k < nComponents; k++) {
+            members[k] = new int[size[k]][];
+        }
+        for (int v = 0; v < nMeetings; v++) {
+            int[][] variables = members[component[v]];
+            if (classOf[v] == v) {
+                variables[local[v]] = new int[classSize[v]];
+                classSize[v] = 0;
+            }
+            variables[local[v]][classSize[classOf[v]]++] = v;
+        }
+        ConstraintNetwork[] components = new ConstraintNetwork[nComponents];
+        for (int k = 0; k < nComponents; k++) {
+            components[k] = new ConstraintNetwork(this, members[k], local);
+        }
+        return components;
+    }
+
+    /**
+     * Union-find with path halving; roots are always the lowest variable of
+     * their set, so a set's root is the first of its variables met in order.
+     */
+    private static int find (int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    private static void union (int[] parent, int u, int v) {
+        int ru = find(parent, u);
+        int rv = find(parent, v);
+        if (ru < rv) {
+            parent[rv] = ru;
+        } else if (rv < ru) {
+            parent[ru] = rv;
+        }
+    }
+
+    /**
+     * @return The lowest meeting of the whole problem that the given
+     *         variable stands for, which differs from it in the network of
+     *         a component
+     */
+    int meeting (int var) {
+        return (meetings == null) ? var : meetings[var][0];
+    }
+
+    /**
+     * @return Every meeting of the whole problem that the given variable
+     *         stands for, in increasing order
+     */
+    int[] meetings (int var) {
+        return (meetings == null) ? new int[] {var} : meetings[var];
+    }
+
+    /**
+     * @return true if every binary constraint is an ordering or "==", and
+     *         there are no AllDifferent constraints; once such a network is
+     *         arc consistent, giving each variable the first day left in its
+     *         domain satisfies every constraint, as arc consistency leaves
+     *         each first day with a support no later than it
+     */
+    boolean isOrderingOnly () {
+        if (allDiffVars.length > 0) {
+            return false;
+        }
+        for (Operator op : arcOp) {
+            if (op == Operator.NE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int arcCount () {
+        return arcTail.length;
+    }
+
+    int allDiffCount () {
+        return allDiffVars.length;
+    }
+
+    /**
+     * Converts a date into its day offset from rangeStart. Dates outside of
+     * the range are clamped to -1 or width so that every comparison against
+     * an in-range offset keeps its meaning.
+     */
+    int toOffset (LocalDate date) {
+        long offset = date.toEpochDay() - origin;
+        if (offset < 0) {
+            return -1;
+        }
+        return (offset > width) ? width : (int) offset;
+    }
+
+    LocalDate toDate (int offset) {
+        return LocalDate.ofEpochDay(origin + offset);
+    }
+
+}
@@ -8,6 +8,8 @@ import java.util.HashSet;
  * DateConstraint superclass: all date constraints will have
  * an L_VAL variable and some operation that compares it to
  * some other variable or date value.
+ * Constraints are compared by value, so that a Set of them holds
+ * each constraint once, however many times it was written.
  */
 public abstract class DateConstraint {
 
@@ -33,7 +35,8 @@ public abstract class DateConstraint {
     /**
      * The arity of a constraint determines the number of variables
      * found within
-     * @return 1 for UnaryDateConstraints, 2 for Binary
+     * @return 1 for UnaryDateConstraints, 2 for Binary, and the number
+     *         of meetings, more than 2, for AllDifferent
      */
     
 //    Note: Since both UnaryDateConstraints and
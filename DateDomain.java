@@ -0,0 +1,302 @@
+package csp;
+
+/**
+ * DateDomain: the set of dates still available to a single meeting
+ * variable, stored as a bitset over day offsets from the start of the
+ * scheduling range (offset 0 is rangeStart, offset width - 1 is rangeEnd).
+ * The size and the smallest / largest remaining offsets are cached so
+ * that bounds queries are constant time.
+ */
+final class DateDomain {
+
+    private final long[] words;
+    private final int width;
+    private int size;
+    private int min;
+    private int max;
+
+    /** Records every word overwritten by a removal, or null when not searching */
+    private Trail trail;
+
+    /** Set while the trail is restoring words, until recount() runs */
+    private boolean stale;
+
+    /**
+     * Constructs a full domain containing every offset in [0, width).
+     * @param width Number of days in the scheduling range
+     */
+    DateDomain (int width) {
+        this.width = Math.max(width, 0);
+        words = new long[(this.width + 63) >>> 6];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = -1L;
+        }
+        if (words.length > 0 && (this.width & 63) != 0) {
+            words[words.length - 1] = -1L >>> (64 - (this.width & 63));
+        }
+        size = this.width;
+        min = size == 0 ? -1 : 0;
+        max = size == 0 ? -1 : this.width - 1;
+    }
+
+    /**
+     * Constructs an independent copy of the given domain.
+     * @param other The domain to copy
+     */
+    DateDomain (DateDomain other) {
+        width = other.width;
+        words = other.words.clone();
+        size = other.size;
+        min = other.min;
+        max = other.max;
+    }
+
+    int width () {
+        return width;
+    }
+
+    int size () {
+        return size;
+    }
+
+    boolean isEmpty () {
+        return size == 0;
+    }
+
+    /**
+     * @return The smallest offset in the domain, or -1 if it is empty
+     */
+    int min () {
+        return min;
+    }
+
+    /**
+     * @return The largest offset in the domain, or -1 if it is empty
+     */
+    int max () {
+        return max;
+    }
+
+    boolean contains (int day) {
+        return day >= 0 && day < width && (words[day >>> 6] & (1L << day)) != 0;
+    }
+
+    /**
+     * Finds the smallest offset in the domain that is at least the given one.
+     * @param from Inclusive lower bound of the search
+     * @return The next offset in the domain, or -1 if there is none
+     */
+    int next (int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= width) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Finds the largest offset in the domain that is at most the given one.
+     * @param from Inclusive upper bound of the search
+     * @return The previous offset in the domain, or -1 if there is none
+     */
+    int prev (int from) {
+        if (from >= width) {
+            from = width - 1;
+        }
+        if (from < 0) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = words[w] & (-1L >>> (63 - (from & 63)));
+        while (word == 0) {
+            if (--w < 0) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    /**
+     * @param bound Exclusive upper bound
+     * @return The number of offsets in the domain strictly below bound
+     */
+    int countBelow (int bound) {
+        if (bound <= min) {
+            return 0;
+        }
+        if (bound > max) {
+            return size;
+        }
+        int last = bound >>> 6;
+        int count = 0;
+        for (int w = min >>> 6; w < last; w++) {
+            count += Long.bitCount(words[w]);
+        }
+        return count + Long.bitCount(words[last] & ~(-1L << bound));
+    }
+
+    /**
+     * Removes the given offset from the domain, if present.
+     * @param day Offset to remove
+     * @return true if the domain changed
+     */
+    boolean remove (int day) {
+        if (!contains(day)) {
+            return false;
+        }
+        write(day >>> 6, words[day >>> 6] & ~(1L << day));
+        size--;
+        if (size == 0) {
+            min = max = -1;
+        } else {
+            if (day == min) {
+                min = next(day + 1);
+            }
+            if (day == max) {
+                max = prev(day - 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes every offset strictly below the given bound.
+     * @param bound Smallest offset that may remain
+     * @return true if the domain changed
+     */
+    boolean removeBelow (int bound) {
+        if (size == 0 || bound <= min) {
+            return false;
+        }
+        if (bound > max) {
+            clear();
+            return true;
+        }
+        int last = bound >>> 6;
+        for (int w = min >>> 6; w < last; w++) {
+            if (words[w] != 0) {
+                size -= Long.bitCount(words[w]);
+                write(w, 0);
+            }
+        }
+        long dropped = words[last] & ~(-1L << bound);
+        size -= Long.bitCount(dropped);
+        write(last, words[last] & ~dropped);
+        min = next(bound);
+        return true;
+    }
+
+    /**
+     * Removes every offset strictly above the given bound.
+     * @param bound Largest offset that may remain
+     * @return true if the domain changed
+     */
+    boolean removeAbove (int bound) {
+        if (size == 0 || bound >= max) {
+            return false;
+        }
+        if (bound < min) {
+            clear();
+            return true;
+        }
+        int first = bound >>> 6;
+        for (int w = max >>> 6; w > first; w--) {
+            if (words[w] != 0) {
+                size -= Long.bitCount(words[w]);
+                write(w, 0);
+            }
+        }
+        long dropped = words[first] & (-1L << bound << 1);
+        size -= Long.bitCount(dropped);
+        write(first, words[first] & ~dropped);
+        max = prev(bound);
+        return true;
+    }
+
+    /**
+     * Removes every offset that is not also in the other domain.
+     * @param other Domain over the same scheduling range
+     * @return true if the domain changed
+     */
+    boolean retainAll (DateDomain other) {
+        int before = size;
+        size = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w] & other.words[w];
+            if (word != words[w]) {
+                write(w, word);
+            }
+            size += Long.bitCount(word);
+        }
+        if (size == before) {
+            return false;
+        }
+        min = next(0);
+        max = prev(width - 1);
+        return true;
+    }
+
+    private void clear () {
+        for (int w = 0; w < words.length; w++) {
+            if (words[w] != 0) {
+                write(w, 0);
+            }
+        }
+        size = 0;
+        min = max = -1;
+    }
+
+    private void write (int w, long word) {
+        if (trail != null) {
+            trail.save(this, w, words[w]);
+        }
+        words[w] = word;
+    }
+
+    /**
+     * Starts (or, given null, stops) recording removals on the given trail so
+     * that they can be undone when the search backtracks.
+     */
+    void setTrail (Trail trail) {
+        this.trail = trail;
+    }
+
+    /**
+     * Puts back a word saved on the trail. The cached size and bounds are
+     * left stale until recount() is called.
+     * @return true if this is the first word restored since the last recount
+     */
+    boolean restoreWord (int w, long word) {
+        words[w] = word;
+        if (stale) {
+            return false;
+        }
+        stale = true;
+        return true;
+    }
+
+    /**
+     * Recomputes the cached size and bounds after words were restored.
+     */
+    void recount () {
+        size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        min = next(0);
+        max = prev(width - 1);
+        stale = false;
+    }
+
+}
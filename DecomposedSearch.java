@@ -0,0 +1,148 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DecomposedSearch: solves a network as decomposed by
+ * ConstraintNetwork.decompose(), with one independent Search per connected
+ * component, merging their solutions. A dead end in one component then never
+ * backtracks over the assignments of another, so a solve costs about as
+ * much as its hardest component rather than the product of all of them.
+ * Without a parallel pool, the components are searched smallest first, so
+ * that an unsatisfiable one is usually found before the larger ones are
+ * searched; with one, they are searched concurrently by its workers, or a
+ * lone component by a ParallelSearch. Either way, the first component found
+ * to have no solution stops the others. A component with only ordering
+ * constraints, including a meeting with none at all, takes the first date
+ * left in each domain without searching.
+ */
+final class DecomposedSearch {
+
+    private final ConstraintNetwork[] components;
+    private final int nMeetings;
+    private final SolverOptions options;
+    private final SolverStats stats;
+    private final Budget budget;
+
+    /** Set once some component is shown to have no solution */
+    private final AtomicBoolean refuted = new AtomicBoolean();
+
+    /**
+     * @param components The networks of the components of the problem
+     * @param budget Limits shared by every component, or null for none
+     */
+    DecomposedSearch (ConstraintNetwork[] components, int nMeetings, SolverOptions options, SolverStats stats,
+            Budget budget) {
+        this.components = components;
+        this.nMeetings = nMeetings;
+        this.options = options;
+        this.stats = stats;
+        this.budget = budget;
+    }
+
+    /**
+     * @param domains Node and arc consistent domains of the whole problem,
+     *        owned by this search
+     * @return Day offset assigned to each meeting, or null if no solution
+     *         exists or a limit stopped the search
+     */
+    int[] solve (DateDomain[] domains) {
+        int[] assignment = new int[nMeetings];
+        ForkJoinPool pool = options.getParallelPool();
+        if (pool == null || components.length == 1) {
+            ConstraintNetwork[] bySize = components.clone();
+            Arrays.sort(bySize, Comparator.comparingInt(component -> component.nMeetings));
+            for (ConstraintNetwork component : bySize) {
+                if (!solve(component, domains, assignment)) {
+                    return null;
+                }
+            }
+            return assignment;
+        }
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<RecursiveAction> tasks = new ArrayList<>(components.length);
+        for (ConstraintNetwork component : components) {
+            tasks.add(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute () {
+                    if (!stopped.get() && !solve(component, domains, assignment)) {
+                        stopped.set(true);
+                    }
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute () {
+                invokeAll(tasks);
+            }
+        });
+        return stopped.get() ? null : assignment;
+    }
+
+    /**
+     * @return true if the search ended because some component has no
+     *         solution, in which case neither has the whole problem, even if
+     *         a limit was also exceeded meanwhile
+     */
+    boolean isRefuted () {
+        return refuted.get();
+    }
+
+    /**
+     * Searches one component, writing its solution into the assignment of
+     * the whole problem.
+     * @return false if the component has no solution, or its search was
+     *         stopped
+     */
+    private boolean solve (ConstraintNetwork component, DateDomain[] domains, int[] assignment) {
+        // The meetings a variable stands for have equal domains once arc
+        // consistent, so any of them will do as the variable's
+        DateDomain[] componentDomains = new DateDomain[component.nMeetings];
+        for (int v = 0; v < component.nMeetings; v++) {
+            componentDomains[v] = domains[component.meeting(v)];
+        }
+        int[] result;
+        if (component.isOrderingOnly()) {
+            result = new int[component.nMeetings];
+            for (int v = 0; v < component.nMeetings; v++) {
+                result[v] = componentDomains[v].min();
+            }
+        } else if (options.getParallelPool() != null && components.length == 1) {
+            result = new ParallelSearch(component, options, options.getParallelPool(), stats, budget)
+                    .solve(componentDomains);
+        } else {
+            Search search = new Search(component, componentDomains, options);
+            search.allowRestarts();
+            search.cancelWhen(refuted);
+            if (budget != null) {
+                search.limitTo(budget);
+            }
+            result = search.solve();
+            search.addStats(stats);
+        }
+        if (result == null) {
+            if (budget == null || !budget.isExceeded()) {
+                refuted.set(true);
+            }
+            return false;
+        }
+        for (int v = 0; v < component.nMeetings; v++) {
+            for (int m : component.meetings(v)) {
+                assignment[m] = result[v];
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,224 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * InstanceGenerator: seeded random CalendarProblems for testing and
+ * benchmarking the solver at scale. The same arguments always produce the
+ * same instance. Three families are generated:
+ * <ul>
+ *   <li>satisfiable: constraints are only added if a hidden random schedule
+ *       satisfies them, so a solution exists however dense the instance;</li>
+ *   <li>unsatisfiable: a satisfiable instance with a small contradiction
+ *       embedded in it, which depending on the seed is refuted by arc
+ *       consistency, or only during search;</li>
+ *   <li>phase transition: unplanted random constraints, as many as make
+ *       about half of the instances satisfiable, which is where random
+ *       instances are hardest.</li>
+ * </ul>
+ * Every range starts on {@link #RANGE_START}. The generator is test code,
+ * left out of the solver's jar and published in its test-jar for the
+ * benchmarks.
+ */
+public final class InstanceGenerator {
+
+    public static final LocalDate RANGE_START = LocalDate.of(2019, 1, 1);
+
+    /**
+     * The operators binary constraints are drawn from.
+     */
+    public enum OperatorMix {
+        /** Every operator */
+        MIXED("==", "!=", "<", "<=", ">", ">="),
+        /** Only orderings, as in precedence between meetings */
+        ORDERING("<", "<=", ">", ">="),
+        /** Only "!=", as in meetings sharing a room or attendee */
+        INEQUALITY("!=");
+
+        final String[] symbols;
+
+        OperatorMix (String... symbols) {
+            this.symbols = symbols;
+        }
+    }
+
+    private InstanceGenerator () {
+    }
+
+    /**
+     * @param nMeetings Number of meetings
+     * @param horizon Number of days in the range
+     * @param density Probability that a pair of meetings is constrained; a
+     *        meeting gets a unary constraint with half this probability
+     * @param mix Operators of the binary constraints
+     * @return An instance that has a solution
+     */
+    public static CalendarProblem satisfiable (long seed, int nMeetings, int horizon, double density,
+            OperatorMix mix) {
+        checkSize(nMeetings, horizon);
+        Random rnd = new Random(seed);
+        return new CalendarProblem(nMeetings, RANGE_START, RANGE_START.plusDays(horizon - 1),
+                plant(rnd, schedule(rnd, nMeetings, horizon), horizon, density, mix));
+    }
+
+    /**
+     * The seed modulo 3 picks the contradiction: 0 is a strict cycle that
+     * arc consistency refutes before searching; 1 and 2 are an equality
+     * chain closed by "!=", and three meetings that must be on different
+     * days, both in a window of a few days. Arc consistency lets those
+     * through, but their narrow domains make MRV assign them, and refute
+     * them, first.
+     * @param nMeetings Number of meetings, at least 3
+     * @param horizon Number of days in the range
+     * @param density As for satisfiable()
+     * @param mix As for satisfiable()
+     * @return An instance that has no solution
+     */
+    public static CalendarProblem unsatisfiable (long seed, int nMeetings, int horizon, double density,
+            OperatorMix mix) {
+        checkSize(nMeetings, horizon);
+        if (nMeetings < 3) {
+            throw new IllegalArgumentException("Invalid number of meetings");
+        }
+        Random rnd = new Random(seed);
+        Set<DateConstraint> constraints = plant(rnd, schedule(rnd, nMeetings, horizon), horizon, density, mix);
+        int[] m = distinct(rnd, nMeetings, 3);
+        int kind = (int) Math.floorMod(seed, 3L);
+        if (kind == 0) {
+            constraints.add(new BinaryDateConstraint(m[0], "<", m[1]));
+            constraints.add(new BinaryDateConstraint(m[1], "<", m[2]));
+            constraints.add(new BinaryDateConstraint(m[2], "<", m[0]));
+        } else {
+            int window = Math.min(horizon, kind == 1 ? 3 : 2);
+            int first = rnd.nextInt(horizon - window + 1);
+            for (int i = 0; i < 3; i++) {
+                constraints.add(new UnaryDateConstraint(m[i], ">=", RANGE_START.plusDays(first)));
+                constraints.add(new UnaryDateConstraint(m[i], "<=", RANGE_START.plusDays(first + window - 1)));
+            }
+            constraints.add(new BinaryDateConstraint(m[0], kind == 1 ? "==" : "!=", m[1]));
+            constraints.add(new BinaryDateConstraint(m[1], kind == 1 ? "==" : "!=", m[2]));
+            constraints.add(new BinaryDateConstraint(m[2], "!=", m[0]));
+        }
+        return new CalendarProblem(nMeetings, RANGE_START, RANGE_START.plusDays(horizon - 1), constraints);
+    }
+
+    /**
+     * Draws random constraints between distinct pairs of meetings until the
+     * expected number of solutions, i.e. the number of schedules times the
+     * probability that each constraint holds, falls to the square root of
+     * the number of schedules (or every pair is constrained). Empirically
+     * about half of such instances are satisfiable for every mix.
+     * @param nMeetings Number of meetings
+     * @param horizon Number of days in the range
+     * @param mix Operators of the constraints
+     * @return An instance at the satisfiability phase transition
+     */
+    public static CalendarProblem phaseTransition (long seed, int nMeetings, int horizon, OperatorMix mix) {
+        checkSize(nMeetings, horizon);
+        Random rnd = new Random(seed);
+        Set<DateConstraint> constraints = new HashSet<>();
+        Set<Long> constrained = new HashSet<>();
+        double logSolutions = nMeetings * Math.log(horizon);
+        double threshold = logSolutions / 2;
+        long pairs = (long) nMeetings * (nMeetings - 1) / 2;
+        while (logSolutions > threshold && constrained.size() < pairs) {
+            int[] m = distinct(rnd, nMeetings, 2);
+            String op = mix.symbols[rnd.nextInt(mix.symbols.length)];
+            if (!constrained.add((long) Math.min(m[0], m[1]) * nMeetings + Math.max(m[0], m[1]))) {
+                continue;
+            }
+            constraints.add(new BinaryDateConstraint(m[0], op, m[1]));
+            logSolutions += Math.log(tightness(Operator.of(op), horizon));
+        }
+        return new CalendarProblem(nMeetings, RANGE_START, RANGE_START.plusDays(horizon - 1), constraints);
+    }
+
+    /**
+     * @return The hidden schedule of the satisfiable instance generated with
+     *         the same seed, meetings and horizon, as day offsets from
+     *         RANGE_START
+     */
+    static int[] schedule (long seed, int nMeetings, int horizon) {
+        return schedule(new Random(seed), nMeetings, horizon);
+    }
+
+    private static int[] schedule (Random rnd, int nMeetings, int horizon) {
+        int[] hidden = new int[nMeetings];
+        for (int i = 0; i < nMeetings; i++) {
+            hidden[i] = rnd.nextInt(horizon);
+        }
+        return hidden;
+    }
+
+    private static Set<DateConstraint> plant (Random rnd, int[] hidden, int horizon, double density,
+            OperatorMix mix) {
+        Set<DateConstraint> constraints = new HashSet<>();
+        for (int i = 0; i < hidden.length; i++) {
+            if (rnd.nextDouble() < density / 2) {
+                String op = OperatorMix.MIXED.symbols[rnd.nextInt(OperatorMix.MIXED.symbols.length)];
+                int day = rnd.nextInt(horizon);
+                if (Operator.of(op).test(hidden[i], day)) {
+                    constraints.add(new UnaryDateConstraint(i, op, RANGE_START.plusDays(day)));
+                }
+            }
+            for (int j = i + 1; j < hidden.length; j++) {
+                if (rnd.nextDouble() >= density) {
+                    continue;
+                }
+                // Draw from the mix until an operator the schedule satisfies
+                // comes up, giving up on the pair if none of them does
+                for (int attempt = 0; attempt < 2 * mix.symbols.length; attempt++) {
+                    String op = mix.symbols[rnd.nextInt(mix.symbols.length)];
+                    if (Operator.of(op).test(hidden[i], hidden[j])) {
+                        constraints.add(new BinaryDateConstraint(i, op, j));
+                        break;
+                    }
+                }
+            }
+        }
+        return constraints;
+    }
+
+    /**
+     * @return The fraction of pairs of days in the horizon for which "left
+     *         op right" holds
+     */
+    private static double tightness (Operator op, int horizon) {
+        double d = horizon;
+        switch (op) {
+        case EQ: return 1 / d;
+        case NE: return 1 - 1 / d;
+        case LT:
+        case GT: return (d - 1) / (2 * d);
+        default: return (d + 1) / (2 * d);
+        }
+    }
+
+    private static int[] distinct (Random rnd, int nMeetings, int count) {
+        int[] chosen = new int[count];
+        for (int i = 0; i < count; i++) {
+            boolean fresh;
+            do {
+                chosen[i] = rnd.nextInt(nMeetings);
+                fresh = true;
+                for (int j = 0; j < i; j++) {
+                    fresh &= chosen[j] != chosen[i];
+                }
+            } while (!fresh);
+        }
+        return chosen;
+    }
+
+    private static void checkSize (int nMeetings, int horizon) {
+        if (nMeetings < 0) {
+            throw new IllegalArgumentException("Invalid number of meetings");
+        }
+        if (horizon < 1) {
+            throw new IllegalArgumentException("Invalid horizon");
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * NogoodStore: partial assignments learned to have no solution, each a set
+ * of (variable, day offset) pairs that must never all hold at once. The
+ * store is bounded: once it holds its capacity, each new nogood evicts the
+ * oldest one, and nogoods over a maximum length are not kept at all since
+ * they rarely match again. Nogoods are indexed under every variable they
+ * mention, so assigning a variable only checks the nogoods that mention it.
+ */
+final class NogoodStore {
+
+    static final int DEFAULT_CAPACITY = 4096;
+    static final int MAX_LENGTH = 16;
+
+    private static final class Nogood {
+        final int[] vars;
+        final int[] values;
+        boolean evicted;
+
+        Nogood (int[] vars, int[] values) {
+            this.vars = vars;
+            this.values = values;
+        }
+    }
+
+    /** Nogoods in learning order, as a ring buffer of the newest ones */
+    private final Nogood[] ring;
+    private int oldest;
+    private int size;
+
+    // Nogoods mentioning each variable, including evicted ones not yet
+    // swept out, and how many there are
+    private final Nogood[][] byVar;
+    private final int[] byVarSize;
+
+    NogoodStore (int nMeetings, int capacity) {
+        ring = new Nogood[capacity];
+        byVar = new Nogood[nMeetings][];
+        byVarSize = new int[nMeetings];
+    }
+
+    int size () {
+        return size;
+    }
+
+    /**
+     * Learns that the given variables can never take the given values together.
+     * @param vars Variables of the nogood; only the first length are used
+     * @param values Day offset of each of those variables
+     * @param length Number of (variable, value) pairs
+     */
+    void add (int[] vars, int[] values, int length) {
+        if (length == 0 || length > MAX_LENGTH || ring.length == 0) {
+            return;
+        }
+        Nogood nogood = new Nogood(Arrays.copyOf(vars, length), Arrays.copyOf(values, length));
+        if (size == ring.length) {
+            ring[oldest].evicted = true;
+            ring[oldest] = nogood;
+            oldest = (oldest + 1) % ring.length;
+        } else {
+            ring[(oldest + size) % ring.length] = nogood;
+            size++;
+        }
+        for (int var : nogood.vars) {
+            Nogood[] list = byVar[var];
+            if (list == null || list.length == byVarSize[var]) {
+                list = byVar[var] = Arrays.copyOf(list == null ? new Nogood[0] : list,
+                        Math.max(4, 2 * byVarSize[var]));
+            }
+            list[byVarSize[var]++] = nogood;
+        }
+    }
+
+    /**
+     * @param var The variable just assigned
+     * @param assignment Day offset assigned to each variable, or -1 if unassigned
+     * @return The variables of a nogood mentioning var that the assignment
+     *         now matches in full, or null if there is none
+     */
+    int[] violated (int var, int[] assignment) {
+        Nogood[] list = byVar[var];
+        int count = byVarSize[var];
+        for (int i = 0; i < count; i++) {
+            Nogood nogood = list[i];
+            if (nogood.evicted) {
+                list[i--] = list[--count];
+                list[count] = null;
+                continue;
+            }
+            if (matches(nogood, assignment)) {
+                byVarSize[var] = count;
+                return nogood.vars;
+            }
+        }
+        byVarSize[var] = count;
+        return null;
+    }
+
+    private static boolean matches (Nogood nogood, int[] assignment) {
+        for (int i = 0; i < nogood.vars.length; i++) {
+            if (assignment[nogood.vars[i]] != nogood.values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
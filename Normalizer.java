@@ -0,0 +1,181 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Normalizer: rewrites the constraints of a problem into the smallest
+ * equivalent set before they are compiled, so that no constraint is checked
+ * twice during search:
+ * <ul>
+ *   <li>The unary constraints on each meeting become the single interval
+ *       they allow, as a "&gt;=" and a "&lt;=" (or one "==") that are left
+ *       out where the range already implies them, and the "!=" dates
+ *       inside that interval, with those at its ends taken off it.</li>
+ *   <li>The binary constraints on each pair of meetings become one,
+ *       written from the lower meeting's side, whose operator allows only
+ *       the comparisons every one of them does, e.g. "0 &lt;= 1" and
+ *       "1 != 0" become "0 &lt; 1". A "!=" between two meetings of an
+ *       AllDifferentDateConstraint is dropped.</li>
+ *   <li>Equal AllDifferentDateConstraints are kept once.</li>
+ * </ul>
+ * Inputs that contradict themselves on their face, with no search or
+ * propagation, are reported rather than rewritten: a meeting left no date,
+ * a pair of meetings left no comparison, or an AllDifferentDateConstraint
+ * over more meetings than there are days.
+ */
+final class Normalizer {
+
+    private Normalizer () {
+    }
+
+    /**
+     * @param constraints Constraints on meetings indexed from 0 to
+     *        nMeetings - 1
+     * @return An equivalent set of constraints, in order of meeting, or null
+     *         if the constraints trivially have no solution
+     */
+    static Set<DateConstraint> normalize (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+            Set<DateConstraint> constraints) {
+        long[] lower = new long[nMeetings];
+        long[] upper = new long[nMeetings];
+        for (int m = 0; m < nMeetings; m++) {
+            lower[m] = rangeStart.toEpochDay();
+            upper[m] = rangeEnd.toEpochDay();
+        }
+        List<TreeSet<Long>> excluded = new ArrayList<>(Collections.nCopies(nMeetings, null));
+        Map<Long, Operator> pairs = new LinkedHashMap<>();
+        Set<AllDifferentDateConstraint> allDiffs = new LinkedHashSet<>();
+        List<List<AllDifferentDateConstraint>> allDiffsOf = new ArrayList<>(Collections.nCopies(nMeetings, null));
+        for (DateConstraint d : constraints) {
+            checkIndex(d.L_VAL, nMeetings);
+            if (d instanceof AllDifferentDateConstraint) {
+                AllDifferentDateConstraint a = (AllDifferentDateConstraint) d;
+                checkIndex(a.MEETINGS.get(a.MEETINGS.size() - 1), nMeetings);
+                if (a.MEETINGS.size() > rangeEnd.toEpochDay() - rangeStart.toEpochDay() + 1) {
+                    return null;
+                }
+                if (allDiffs.add(a)) {
+                    for (int m : a.MEETINGS) {
+                        if (allDiffsOf.get(m) == null) {
+                            allDiffsOf.set(m, new ArrayList<>());
+                        }
+                        allDiffsOf.get(m).add(a);
+                    }
+                }
+            } else if (d.arity() == 1) {
+                int m = d.L_VAL;
+                long day = ((UnaryDateConstraint) d).R_VAL.toEpochDay();
+                switch (Operator.of(d.OP)) {
+                case EQ:
+                    lower[m] = Math.max(lower[m], day);
+                    upper[m] = Math.min(upper[m], day);
+                    break;
+                case LT:
+                    upper[m] = Math.min(upper[m], day - 1);
+                    break;
+                case LE:
+                    upper[m] = Math.min(upper[m], day);
+                    break;
+                case GT:
+                    lower[m] = Math.max(lower[m], day + 1);
+                    break;
+                case GE:
+                    lower[m] = Math.max(lower[m], day);
+                    break;
+                default:
+                    if (excluded.get(m) == null) {
+                        excluded.set(m, new TreeSet<>());
+                    }
+                    excluded.get(m).add(day);
+                }
+            } else {
+                BinaryDateConstraint b = (BinaryDateConstraint) d;
+                checkIndex(b.R_VAL, nMeetings);
+                Operator op = Operator.of(b.OP);
+                long key;
+                if (b.L_VAL < b.R_VAL) {
+                    key = (long) b.L_VAL * nMeetings + b.R_VAL;
+                } else {
+                    key = (long) b.R_VAL * nMeetings + b.L_VAL;
+                    op = op.converse();
+                }
+                Operator both = pairs.containsKey(key) ? pairs.get(key).and(op) : op;
+                if (both == null) {
+                    return null;
+                }
+                pairs.put(key, both);
+            }
+        }
+
+        Set<DateConstraint> normalized = new LinkedHashSet<>();
+        for (int m = 0; m < nMeetings; m++) {
+            TreeSet<Long> holes = excluded.get(m);
+            if (holes != null) {
+                while (lower[m] <= upper[m] && holes.contains(lower[m])) {
+                    lower[m]++;
+                }
+                while (lower[m] <= upper[m] && holes.contains(upper[m])) {
+                    upper[m]--;
+                }
+            }
+            if (lower[m] > upper[m]) {
+                return null;
+            }
+            boolean bounded = lower[m] > rangeStart.toEpochDay() || upper[m] < rangeEnd.toEpochDay();
+            if (bounded && lower[m] == upper[m]) {
+                normalized.add(new UnaryDateConstraint(m, "==", LocalDate.ofEpochDay(lower[m])));
+                continue;
+            }
+            if (lower[m] > rangeStart.toEpochDay()) {
+                normalized.add(new UnaryDateConstraint(m, ">=", LocalDate.ofEpochDay(lower[m])));
+            }
+            if (upper[m] < rangeEnd.toEpochDay()) {
+                normalized.add(new UnaryDateConstraint(m, "<=", LocalDate.ofEpochDay(upper[m])));
+            }
+            if (holes != null) {
+                for (long day : holes.subSet(lower[m], upper[m])) {
+                    normalized.add(new UnaryDateConstraint(m, "!=", LocalDate.ofEpochDay(day)));
+                }
+            }
+        }
+        for (Map.Entry<Long, Operator> pair : pairs.entrySet()) {
+            int left = (int) (pair.getKey() / nMeetings);
+            int right = (int) (pair.getKey() % nMeetings);
+            if (pair.getValue() != Operator.NE || !shareAllDifferent(allDiffsOf.get(left), right)) {
+                normalized.add(new BinaryDateConstraint(left, pair.getValue().symbol, right));
+            }
+        }
+        normalized.addAll(allDiffs);
+        return normalized;
+    }
+
+    /**
+     * @param allDiffs The AllDifferentDateConstraints on some meeting, or null
+     * @return Whether one of them also constrains the given meeting
+     */
+    private static boolean shareAllDifferent (List<AllDifferentDateConstraint> allDiffs, int meeting) {
+        if (allDiffs != null) {
+            for (AllDifferentDateConstraint a : allDiffs) {
+                if (Collections.binarySearch(a.MEETINGS, meeting) >= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void checkIndex (int meeting, int nMeetings) {
+        if (meeting >= nMeetings) {
+            throw new IllegalArgumentException("Invalid variable index");
+        }
+    }
+
+}
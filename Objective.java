@@ -0,0 +1,56 @@
+package csp;
+
+/**
+ * Objective: what {@link CSP#optimize} minimizes over the solutions of a
+ * problem. Each objective bounds its cost from below given a partial
+ * assignment, using the assigned days and the bounds of the unassigned
+ * meetings' domains, which is what lets branch and bound prune a subtree
+ * that cannot beat the best solution found so far.
+ */
+public enum Objective {
+
+    /**
+     * The date of the latest meeting, i.e. finish the schedule as early as
+     * possible.
+     */
+    LATEST_DATE {
+        @Override
+        int lowerBound (int[] assignment, DateDomain[] domains) {
+            int latest = 0;
+            for (int v = 0; v < assignment.length; v++) {
+                latest = Math.max(latest, (assignment[v] != -1) ? assignment[v] : domains[v].min());
+            }
+            return latest;
+        }
+    },
+
+    /**
+     * The number of days between the earliest and the latest meeting, i.e.
+     * pack the schedule as tightly as possible wherever it falls.
+     */
+    SPAN {
+        @Override
+        int lowerBound (int[] assignment, DateDomain[] domains) {
+            // The latest meeting is at least the largest of the earliest days
+            // each meeting can still have, and the earliest at most the
+            // smallest of the latest days
+            int latest = 0;
+            int earliest = Integer.MAX_VALUE;
+            for (int v = 0; v < assignment.length; v++) {
+                boolean assigned = assignment[v] != -1;
+                latest = Math.max(latest, assigned ? assignment[v] : domains[v].min());
+                earliest = Math.min(earliest, assigned ? assignment[v] : domains[v].max());
+            }
+            return Math.max(0, latest - earliest);
+        }
+    };
+
+    /**
+     * @param assignment Day offset assigned to each variable, or -1 if unassigned
+     * @param domains Current domains of the variables
+     * @return A cost that no completion of the assignment within the domains
+     *         goes below; for a complete assignment, its exact cost
+     */
+    abstract int lowerBound (int[] assignment, DateDomain[] domains);
+
+}
@@ -0,0 +1,91 @@
+package csp;
+
+import java.time.LocalDate;
+
+/**
+ * Operator: the compiled form of a DateConstraint's OP string. Each
+ * operator is a 3-bit mask over the possible outcomes of comparing its
+ * operands (bit 0: left &lt; right, bit 1: equal, bit 2: left &gt; right),
+ * so testing a pair of day offsets is a single compare and shift with no
+ * branching on the operator itself.
+ */
+enum Operator {
+
+    EQ("==", 0b010),
+    NE("!=", 0b101),
+    LT("<",  0b001),
+    LE("<=", 0b011),
+    GT(">",  0b100),
+    GE(">=", 0b110);
+
+    final String symbol;
+    final int mask;
+
+    Operator (String symbol, int mask) {
+        this.symbol = symbol;
+        this.mask = mask;
+    }
+
+    /**
+     * @param left Day offset of the left operand
+     * @param right Day offset (or date literal offset) of the right operand
+     * @return Whether "left OP right" holds
+     */
+    boolean test (int left, int right) {
+        return ((mask >>> (Integer.compare(left, right) + 1)) & 1) != 0;
+    }
+
+    /**
+     * @return Whether "left OP right" holds for the given dates
+     */
+    boolean test (LocalDate left, LocalDate right) {
+        return ((mask >>> (Integer.signum(left.compareTo(right)) + 1)) & 1) != 0;
+    }
+
+    /**
+     * The operator that holds with its operands swapped, so that "a &lt; b"
+     * can be revised from b's side as "b &gt; a".
+     */
+    Operator converse () {
+        switch (this) {
+        case LT: return GT;
+        case LE: return GE;
+        case GT: return LT;
+        case GE: return LE;
+        default: return this;
+        }
+    }
+
+    /**
+     * @return The operator that holds exactly when both this and other do,
+     *         or null if no pair of operands satisfies both
+     */
+    Operator and (Operator other) {
+        int both = mask & other.mask;
+        for (Operator op : values()) {
+            if (op.mask == both) {
+                return op;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param symbol One of the legal DateConstraint operator strings
+     * @return The matching Operator
+     */
+    static Operator of (String symbol) {
+        for (Operator op : values()) {
+            if (op.symbol.equals(symbol)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Invalid constraint operator");
+    }
+
+    @Override
+    public String toString () {
+        return symbol;
+    }
+
+}
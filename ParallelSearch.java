@@ -0,0 +1,144 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ParallelSearch: splits the search tree across a ForkJoinPool. A task
+ * branches on the values of the variable chosen at its node and forks one
+ * subtask per value for idle workers to steal; each subtask copies the
+ * domains when it starts running. Once enough tasks are queued, a task
+ * instead runs a sequential Search over its subtree. The first task to
+ * complete an assignment publishes it and every other task stops at its
+ * next node. Each task adds its counters to the shared SolverStats as it
+ * finishes, and charges its nodes to the shared Budget, if any.
+ */
+final class ParallelSearch {
+
+    /** Keep splitting while a worker has at most this many tasks queued */
+    private static final int SURPLUS_THRESHOLD = 2;
+
+    private final ConstraintNetwork network;
+    private final SolverOptions options;
+    private final ForkJoinPool pool;
+    private final SolverStats stats;
+    private final Budget budget;
+    private final AtomicBoolean found = new AtomicBoolean();
+    private final AtomicReference<int[]> solution = new AtomicReference<>();
+
+    /**
+     * @param budget Limits shared by every task, or null for none
+     */
+    ParallelSearch (ConstraintNetwork network, SolverOptions options, ForkJoinPool pool, SolverStats stats,
+            Budget budget) {
+        this.network = network;
+        this.options = options;
+        this.pool = pool;
+        this.stats = stats;
+        this.budget = budget;
+    }
+
+    /**
+     * @param domains Node and arc consistent domains, owned by this search
+     * @return Day offset assigned to each variable, or null if no solution exists
+     */
+    int[] solve (DateDomain[] domains) {
+        pool.invoke(new Branch(domains, Search.unassigned(network.nMeetings), 0, -1, -1));
+        return solution.get();
+    }
+
+    private void publish (int[] assignment) {
+        if (found.compareAndSet(false, true)) {
+            solution.set(assignment);
+        }
+    }
+
+    private final class Branch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private DateDomain[] domains;
+        private int[] assignment;
+        private final int depth;
+        private final int var;
+        private final int value;
+
+        /**
+         * A branch that first assigns var the given value below its parent's
+         * state, which is copied only once the branch runs; a var of -1 makes
+         * a branch that searches the given state as is.
+         */
+        Branch (DateDomain[] domains, int[] assignment, int depth, int var, int value) {
+            this.domains = domains;
+            this.assignment = assignment;
+            this.depth = depth;
+            this.var = var;
+            this.value = value;
+        }
+
+        @Override
+        protected void compute () {
+            if (found.get()) {
+                return;
+            }
+            if (var != -1) {
+                if (budget != null && !budget.charge(1)) {
+                    return;
+                }
+                DateDomain[] parentDomains = domains;
+                domains = new DateDomain[parentDomains.length];
+                for (int v = 0; v < domains.length; v++) {
+                    domains[v] = new DateDomain(parentDomains[v]);
+                }
+                assignment = assignment.clone();
+                assignment[var] = value;
+                Propagator propagator = new Propagator(network, domains);
+                boolean consistent = propagator.assign(var, assignment, options.getPropagation());
+                stats.add(1, 0, propagator.checks, propagator.revisions);
+                SolverListener listener = options.getListener();
+                if (listener != null) {
+                    if (consistent) {
+                        listener.assigned(network.meeting(var), network.toDate(value), depth - 1);
+                    } else {
+                        listener.rejected(network.meeting(var), network.toDate(value), depth - 1);
+                    }
+                }
+                if (!consistent) {
+                    return;
+                }
+            }
+            if (depth == assignment.length) {
+                publish(assignment);
+                return;
+            }
+            if (depth > 0 && getSurplusQueuedTaskCount() > SURPLUS_THRESHOLD) {
+                Search search = new Search(network, domains, options, assignment, depth);
+                search.cancelWhen(found);
+                if (budget != null) {
+                    search.limitTo(budget);
+                }
+                int[] result = search.solve();
+                search.addStats(stats);
+                if (result != null) {
+                    publish(result);
+                }
+                return;
+            }
+
+            int next = options.getVariableOrder().select(assignment, domains, network, depth, null);
+            long[] values = new long[domains[next].size()];
+            int nValues = options.getValueOrder().order(next, assignment, domains, network, values, null);
+            List<Branch> children = new ArrayList<>(nValues);
+            for (int i = 0; i < nValues; i++) {
+                children.add(new Branch(domains, assignment, depth + 1, next, (int) values[i]));
+            }
+            invokeAll(children);
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package csp;
+
+/**
+ * Propagation: how much constraint propagation the backtracking search does
+ * after each assignment. Node and arc consistency always run once before
+ * search starts.
+ */
+public enum Propagation {
+
+    /**
+     * No pruning during search; an assignment is only checked against the
+     * meetings assigned before it.
+     */
+    NONE,
+
+    /**
+     * Forward checking: after each assignment, remove the dates of
+     * unassigned neighbouring meetings that conflict with it.
+     */
+    FORWARD_CHECKING,
+
+    /**
+     * Maintaining arc consistency: after each assignment, re-run AC-3
+     * starting from the arcs into the assigned meeting.
+     */
+    MAC
+
+}
@@ -0,0 +1,352 @@
+package csp;
+
+/**
+ * Propagator: node consistency, AC-3 and forward checking over the domains
+ * of one solve. The AC-3 worklist is allocated once and reused, so
+ * propagating during search allocates nothing per node. AllDifferent
+ * constraints are revised as a whole, alongside the arcs, and treated as
+ * "!=" between each pair of their meetings when checking and forward
+ * checking.
+ */
+final class Propagator {
+
+    private final ConstraintNetwork network;
+    private final DateDomain[] domains;
+
+    // Circular worklist of arc ids; an arc is never queued twice at once, so
+    // one slot per arc is enough
+    private final int[] queue;
+    private final boolean[] queued;
+    private int first;
+    private int pending;
+
+    // AllDifferent constraints waiting to be revised, as a stack, and the
+    // propagator revising them, or null if the network has none
+    private final int[] allDiffQueue;
+    private final boolean[] allDiffQueued;
+    private int allDiffPending;
+    private final AllDifferent allDifferent;
+
+    // Explanation of the last assign(): the variable whose assignment it
+    // conflicted with (without propagation) or whose domain it emptied
+    // (with forward checking), or -1 if unknown; and the neighbours whose
+    // domains forward checking shrank
+    private int culprit = -1;
+    private final int[] pruned;
+    private int nPruned;
+
+    /** Constraints tested and arcs revised so far, for SolverStats */
+    long checks;
+    long revisions;
+
+    Propagator (ConstraintNetwork network, DateDomain[] domains) {
+        this.network = network;
+        this.domains = domains;
+        queue = new int[network.arcCount()];
+        queued = new boolean[network.arcCount()];
+        allDiffQueue = new int[network.allDiffCount()];
+        allDiffQueued = new boolean[network.allDiffCount()];
+        allDifferent = (network.allDiffCount() == 0) ? null : new AllDifferent(network);
+        int members = 0;
+        for (int[] vars : network.allDiffVars) {
+            members += vars.length;
+        }
+        pruned = new int[network.arcCount() + members];
+    }
+
+    /**
+     * Removes the values of domain for which "value op day" does not hold.
+     * @return true if domain changed
+     */
+    static boolean restrict (DateDomain domain, Operator op, int day) {
+        switch (op) {
+        case EQ: return domain.removeBelow(day) | domain.removeAbove(day);
+        case NE: return domain.remove(day);
+        case LT: return domain.removeAbove(day - 1);
+        case LE: return domain.removeAbove(day);
+        case GT: return domain.removeBelow(day + 1);
+        default: return domain.removeBelow(day);
+        }
+    }
+
+    /**
+     * Removes the values of tail that have no support in head under "tail op
+     * head". Ordering operators only need head's bounds, so they are revised
+     * in constant time; "==" intersects the two bitsets and "!=" can only
+     * prune once head is down to a single value.
+     * @return true if tail changed
+     */
+    static boolean revise (DateDomain tail, DateDomain head, Operator op) {
+        switch (op) {
+        case LT:
+        case LE:
+            return restrict(tail, op, head.max());
+        case GT:
+        case GE:
+            return restrict(tail, op, head.min());
+        case EQ:
+            return tail.retainAll(head);
+        default:
+            return head.size() == 1 && tail.remove(head.min());
+        }
+    }
+
+    /**
+     * Applies every unary constraint to its variable's domain.
+     * @return false if some domain was emptied, i.e. there is no solution
+     */
+    boolean nodeConsistency () {
+        boolean consistent = true;
+        for (int v = 0; v < domains.length; v++) {
+            for (int k = 0; k < network.unaryOp[v].length; k++) {
+                restrict(domains[v], network.unaryOp[v][k], network.unaryDay[v][k]);
+            }
+            consistent &= !domains[v].isEmpty();
+        }
+        return consistent;
+    }
+
+    /**
+     * AC-3 over every arc: whenever revising an arc shrinks its tail, the
+     * arcs pointing into that tail are queued again until nothing changes.
+     * @return false if some domain was emptied, i.e. there is no solution
+     */
+    boolean arcConsistency () {
+        for (DateDomain domain : domains) {
+            if (domain.isEmpty()) {
+                return false;
+            }
+        }
+        for (int a = 0; a < queue.length; a++) {
+            enqueue(a);
+        }
+        for (int c = 0; c < allDiffQueue.length; c++) {
+            enqueueAllDiff(c);
+        }
+        return propagate();
+    }
+
+    /**
+     * Checks only the constraints that mention the variable that was just
+     * assigned; every other constraint was already satisfied (or still has an
+     * unassigned operand) before this assignment was made.
+     * @param assignment Day offset assigned to each variable, or -1 if unassigned
+     */
+    boolean constraintCheck (int var, int[] assignment) {
+        int leftDay = assignment[var];
+        Operator[] unaryOp = network.unaryOp[var];
+        int[] unaryDay = network.unaryDay[var];
+        for (int k = 0; k < unaryOp.length; k++) {
+            checks++;
+            if (!unaryOp[k].test(leftDay, unaryDay[k])) {
+                return false;
+            }
+        }
+        for (int a : network.outgoing[var]) {
+            int rightDay = assignment[network.arcHead[a]];
+            if (rightDay == -1) {
+                continue;
+            }
+            checks++;
+            if (!network.arcOp[a].test(leftDay, rightDay)) {
+                culprit = network.arcHead[a];
+                return false;
+            }
+        }
+        for (int c : network.allDiffOf[var]) {
+            for (int other : network.allDiffVars[c]) {
+                if (other == var || assignment[other] == -1) {
+                    continue;
+                }
+                checks++;
+                if (assignment[other] == leftDay) {
+                    culprit = other;
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Called once assignment[var] has been set. Without propagation this only
+     * checks the new assignment against the earlier ones; otherwise var's
+     * domain is reduced to its value and, for MAC, arc consistency is
+     * restored from the arcs into var, or, for forward checking, var's
+     * unassigned neighbours are pruned.
+     * @param assignment Day offset assigned to each variable, or -1 if unassigned
+     * @return false if the assignment conflicts or some domain was emptied
+     */
+    boolean assign (int var, int[] assignment, Propagation propagation) {
+        culprit = -1;
+        nPruned = 0;
+        if (propagation == Propagation.NONE) {
+            return constraintCheck(var, assignment);
+        }
+        restrict(domains[var], Operator.EQ, assignment[var]);
+        switch (propagation) {
+        case MAC:
+            markChanged(var);
+            return propagate();
+        case FORWARD_CHECKING:
+            for (int b : network.incoming[var]) {
+                int neighbour = network.arcTail[b];
+                if (assignment[neighbour] != -1) {
+                    continue;
+                }
+                revisions++;
+                if (revise(domains[neighbour], domains[var], network.arcOp[b])) {
+                    if (domains[neighbour].isEmpty()) {
+                        culprit = neighbour;
+                        return false;
+                    }
+                    if (nPruned == 0 || pruned[nPruned - 1] != neighbour) {
+                        pruned[nPruned++] = neighbour;
+                    }
+                }
+            }
+            for (int c : network.allDiffOf[var]) {
+                for (int neighbour : network.allDiffVars[c]) {
+                    if (assignment[neighbour] != -1) {
+                        continue;
+                    }
+                    revisions++;
+                    if (domains[neighbour].remove(assignment[var])) {
+                        if (domains[neighbour].isEmpty()) {
+                            culprit = neighbour;
+                            return false;
+                        }
+                        pruned[nPruned++] = neighbour;
+                    }
+                }
+            }
+            return true;
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * @return After assign() fails, the variable whose assignment it conflicted
+     *         with or whose domain it emptied, or -1 if that is unknown (a unary
+     *         constraint, or a wipe-out found by MAC)
+     */
+    int culprit () {
+        return culprit;
+    }
+
+    /**
+     * @return After forward checking succeeds, the number of neighbours whose
+     *         domains it shrank
+     */
+    int prunedCount () {
+        return nPruned;
+    }
+
+    /**
+     * @param i Index below prunedCount()
+     * @return A neighbour whose domain forward checking shrank
+     */
+    int pruned (int i) {
+        return pruned[i];
+    }
+
+    /**
+     * Queues the arcs and AllDifferent constraints into var, as after var's
+     * domain shrank outside of propagation, so that the next propagate()
+     * takes the change into account.
+     */
+    void markChanged (int var) {
+        for (int b : network.incoming[var]) {
+            enqueue(b);
+        }
+        for (int c : network.allDiffOf[var]) {
+            enqueueAllDiff(c);
+        }
+    }
+
+    private void enqueue (int a) {
+        if (!queued[a]) {
+            queue[(first + pending) % queue.length] = a;
+            queued[a] = true;
+            pending++;
+        }
+    }
+
+    private void enqueueAllDiff (int c) {
+        if (!allDiffQueued[c]) {
+            allDiffQueue[allDiffPending++] = c;
+            allDiffQueued[c] = true;
+        }
+    }
+
+    /**
+     * Runs AC-3 until no queued arc or AllDifferent constraint changes a
+     * domain. The arcs are cheaper to revise, so the queued ones are all
+     * revised before each AllDifferent constraint.
+     * @return false if some domain was emptied or some AllDifferent
+     *         constraint cannot be satisfied
+     */
+    boolean propagate () {
+        while (true) {
+            while (pending > 0) {
+                int a = queue[first];
+                first = (first + 1 == queue.length) ? 0 : first + 1;
+                pending--;
+                queued[a] = false;
+                int tail = network.arcTail[a];
+                revisions++;
+                if (!revise(domains[tail], domains[network.arcHead[a]], network.arcOp[a])) {
+                    continue;
+                }
+                if (domains[tail].isEmpty()) {
+                    clearQueue();
+                    return false;
+                }
+                for (int b : network.incoming[tail]) {
+                    if (b != (a ^ 1)) {
+                        enqueue(b);
+                    }
+                }
+                for (int c : network.allDiffOf[tail]) {
+                    enqueueAllDiff(c);
+                }
+            }
+            if (allDiffPending == 0) {
+                return true;
+            }
+            int c = allDiffQueue[--allDiffPending];
+            allDiffQueued[c] = false;
+            revisions++;
+            if (!allDifferent.propagate(c, domains)) {
+                clearQueue();
+                return false;
+            }
+            // A revision leaves its own constraint consistent, so only the
+            // others on the meetings it shrank need revising again
+            for (int i = 0; i < allDifferent.changedCount(); i++) {
+                int var = allDifferent.changed(i);
+                for (int b : network.incoming[var]) {
+                    enqueue(b);
+                }
+                for (int other : network.allDiffOf[var]) {
+                    if (other != c) {
+                        enqueueAllDiff(other);
+                    }
+                }
+            }
+        }
+    }
+
+    private void clearQueue () {
+        while (pending > 0) {
+            queued[queue[first]] = false;
+            first = (first + 1 == queue.length) ? 0 : first + 1;
+            pending--;
+        }
+        while (allDiffPending > 0) {
+            allDiffQueued[allDiffQueue[--allDiffPending]] = false;
+        }
+    }
+
+}
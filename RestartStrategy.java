@@ -0,0 +1,82 @@
+package csp;
+
+/**
+ * RestartStrategy: when the backtracking search gives up on its current
+ * assignment and starts again from the first meeting. A search that makes
+ * one bad choice near the root can spend almost all of its time refuting
+ * the subtree below it; restarting with ties in the variable and value
+ * orders broken differently (at random, from
+ * {@link SolverOptions#setRandomSeed(long)}) lets a later run avoid that
+ * choice. Each run is cut off after a number of backtracks, counted in
+ * units of {@link SolverOptions#setRestartBase(long)}, that grows without
+ * bound from run to run, so some run eventually completes and the search
+ * stays complete. Restarts only diversify the search when the orders have
+ * ties to break, i.e. with VariableOrder.MRV or ValueOrder.LCV.
+ */
+public enum RestartStrategy {
+
+    /**
+     * The search never restarts.
+     */
+    NONE {
+        @Override
+        long cutoff (int run, long base) {
+            return Long.MAX_VALUE;
+        }
+    },
+
+    /**
+     * Luby's sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...,
+     * which is within a logarithmic factor of the best fixed cutoff for any
+     * distribution of run times, without knowing the distribution.
+     */
+    LUBY {
+        @Override
+        long cutoff (int run, long base) {
+            // The i-th term is 2^(k-1) if i = 2^k - 1, and otherwise the
+            // (i - 2^(k-1) + 1)-th, where 2^(k-1) <= i < 2^k - 1
+            long i = run + 1;
+            while (true) {
+                int k = 64 - Long.numberOfLeadingZeros(i);
+                if (i == (1L << k) - 1) {
+                    return scale(1L << (k - 1), base);
+                }
+                i -= (1L << (k - 1)) - 1;
+            }
+        }
+    },
+
+    /**
+     * Cutoffs growing by half again each run: 1, 1.5, 2.25, ..., which
+     * reaches long runs sooner than LUBY at the cost of more wasted work
+     * when short runs would have done.
+     */
+    GEOMETRIC {
+        @Override
+        long cutoff (int run, long base) {
+            return (long) Math.min(Math.pow(1.5, run) * base, Long.MAX_VALUE);
+        }
+    };
+
+    /**
+     * @param run The number of runs before this one
+     * @param base Backtracks in one unit of the strategy's sequence
+     * @return The number of backtracks after which the run gives up
+     */
+    abstract long cutoff (int run, long base);
+
+    /**
+     * @param backtracks Backtracks made before the run starts
+     * @return The total number of backtracks at which the run gives up,
+     *         saturating at Long.MAX_VALUE, which is never reached
+     */
+    long cutoffAfter (long backtracks, int run, long base) {
+        long length = cutoff(run, base);
+        return (length > Long.MAX_VALUE - backtracks) ? Long.MAX_VALUE : backtracks + length;
+    }
+
+    private static long scale (long units, long base) {
+        return (units > Long.MAX_VALUE / base) ? Long.MAX_VALUE : units * base;
+    }
+
+}
@@ -0,0 +1,469 @@
+package csp;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Search: backtracking over the propagated domains of one solve. The search
+ * is iterative, keeping one choice point per assigned variable on an
+ * explicit stack preallocated to the number of meetings, so its depth is
+ * not limited by the thread's stack size. With forward checking or MAC,
+ * every removal made below a choice point is recorded on a Trail and undone
+ * on backtrack instead of copying domains, and candidate values are staged
+ * in per-depth buffers, so a search node allocates nothing once the buffers
+ * have grown to size. With backjumping enabled, dead ends jump back through
+ * the stack as directed by a Backjumper rather than one level at a time.
+ * With a restart strategy, ties in the variable and value orders are broken
+ * at random, and a search allowed to restart unwinds its whole stack
+ * whenever a run reaches its cutoff, keeping only its learned nogoods.
+ */
+final class Search {
+
+    private final ConstraintNetwork network;
+    private final DateDomain[] domains;
+    private final Propagator propagator;
+    private final SolverOptions options;
+    private final Trail trail;
+    private final int[] assignment;
+    private final int startDepth;
+
+    /** Conflict sets and nogoods when backjumping, or null */
+    private final Backjumper backjumper;
+
+    /** Receives search events, or null */
+    private final SolverListener listener;
+
+    /** Values tried and dead ends reached so far, for SolverStats */
+    private long nodes;
+    private long backtracks;
+
+    // Choice point stack, indexed by depth: the variable assigned there, its
+    // candidate values as ordered by the ValueOrder, how many of them there
+    // are, the index of the next one to try and the trail mark to undo to
+    // before trying it
+    private final int[] stackVar;
+    private final long[][] candidates;
+    private final int[] stackCount;
+    private final int[] stackNext;
+    private final int[] stackMark;
+
+    /** Set by another thread to stop the search early, or null */
+    private AtomicBoolean cancelled;
+
+    // Limits to stop at, or null, with the nodes charged to them so far and
+    // the node count at which to charge them next
+    private Budget budget;
+    private long charged;
+    private long nextCharge;
+
+    /** Value to try first for each variable, or null */
+    private int[] hint;
+
+    // Where the search stopped: the depth of the last complete assignment
+    // found, and whether the search has started or run out of solutions
+    private int depth;
+    private boolean started;
+    private boolean exhausted;
+
+    // In optimization mode, the objective and the cost every new solution
+    // must be below, i.e. that of the last solution found
+    private Objective objective;
+    private int bound;
+
+    /** Breaks ties in the variable and value orders, or null */
+    private final Random random;
+
+    // When restarts are allowed, the strategy, the backtrack count at which
+    // the current run gives up, and the number of runs given up so far
+    private RestartStrategy restarts;
+    private long cutoff;
+    private int runs;
+
+    /** Solutions counted without being materialized, in counting mode */
+    private boolean counting;
+    private long solutions;
+
+    /**
+     * Constructs a search from the root, with every variable unassigned.
+     * @param domains Node and arc consistent domains, owned by this search
+     */
+    Search (ConstraintNetwork network, DateDomain[] domains, SolverOptions options) {
+        this(network, domains, options, unassigned(network.nMeetings), 0);
+    }
+
+    /**
+     * Constructs a search below a partial assignment.
+     * @param domains Domains consistent with the partial assignment, owned
+     *        by this search
+     * @param assignment Day offset assigned to each variable, or -1 if
+     *        unassigned, owned by this search
+     * @param depth The number of variables already assigned
+     */
+    Search (ConstraintNetwork network, DateDomain[] domains, SolverOptions options, int[] assignment, int depth) {
+        this.network = network;
+        this.domains = domains;
+        this.options = options;
+        this.assignment = assignment;
+        startDepth = depth;
+        propagator = new Propagator(network, domains);
+        trail = new Trail();
+        stackVar = new int[network.nMeetings];
+        candidates = new long[network.nMeetings][];
+        stackCount = new int[network.nMeetings];
+        stackNext = new int[network.nMeetings];
+        stackMark = new int[network.nMeetings];
+        backjumper = (options.isBackjumping() && options.getPropagation() != Propagation.MAC)
+                ? new Backjumper(network.nMeetings, depth) : null;
+        listener = options.getListener();
+        random = (options.getRestartStrategy() != RestartStrategy.NONE)
+                ? new Random(scramble(options.getRandomSeed())) : null;
+        if (options.getPropagation() != Propagation.NONE) {
+            for (DateDomain domain : domains) {
+                domain.setTrail(trail);
+            }
+        }
+    }
+
+    static int[] unassigned (int nMeetings) {
+        int[] assignment = new int[nMeetings];
+        Arrays.fill(assignment, -1);
+        return assignment;
+    }
+
+    /**
+     * Makes the search give up, as if no solution existed, once the given
+     * flag is set.
+     */
+    void cancelWhen (AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Makes the search give up once the given budget is exceeded, which
+     * budget.isExceeded() then tells apart from running out of solutions.
+     */
+    void limitTo (Budget budget) {
+        this.budget = budget;
+        nextCharge = nodes + budget.interval();
+    }
+
+    /**
+     * Turns the search into branch and bound: each solution returned by
+     * next() costs less than the one before, and a value is rejected as soon
+     * as the objective's lower bound shows that it cannot lead to a cheaper
+     * one. The last solution found is then optimal once next() returns false
+     * without the search having been cut short.
+     */
+    void minimize (Objective objective) {
+        this.objective = objective;
+        bound = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Lets the search restart as the options' restart strategy directs. Only
+     * for a search after one solution, or after a cheaper one each time, as
+     * the runs before a restart may have explored the same subtrees as the
+     * runs after it.
+     */
+    void allowRestarts () {
+        if (options.getRestartStrategy() != RestartStrategy.NONE) {
+            restarts = options.getRestartStrategy();
+            cutoff = restarts.cutoffAfter(backtracks, runs, options.getRestartBase());
+        }
+    }
+
+    /**
+     * Seeds the search with a previous solution: whenever a variable's hinted
+     * value is still in its domain, it is tried before the others.
+     * @param hint Day offset to try first for each variable, or -1 for none
+     */
+    void preferValues (int[] hint) {
+        this.hint = hint;
+    }
+
+    /**
+     * @return Day offset assigned to each variable, or null if no solution exists
+     */
+    int[] solve () {
+        return next() ? assignment : null;
+    }
+
+    /**
+     * Advances to the next solution, resuming the search from the deepest
+     * choice point of the previous one. Solutions are produced in search
+     * order and never repeat.
+     * @return true if another solution was found; it can then be read from
+     *         assignment() until the next call
+     */
+    boolean next () {
+        if (exhausted) {
+            return false;
+        }
+        boolean resume = started;
+        started = true;
+        if (!iterativeBackTracking(resume)) {
+            exhausted = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Day offset assigned to each variable by the current solution
+     */
+    int[] assignment () {
+        return assignment;
+    }
+
+    /**
+     * Counts every remaining solution without stopping at each one. With
+     * forward checking or MAC, every value left in the last variable's
+     * domain is consistent with the rest of the assignment, so the last
+     * level of the tree is counted from domain sizes without assigning it.
+     * @return The number of solutions not yet returned by next()
+     */
+    long count () {
+        counting = true;
+        solutions = 0;
+        next();
+        counting = false;
+        return solutions;
+    }
+
+    /**
+     * Adds the counters of this search and its propagator to stats.
+     */
+    void addStats (SolverStats stats) {
+        stats.add(nodes, backtracks, propagator.checks, propagator.revisions);
+        stats.addRestarts(runs);
+    }
+
+    /**
+     * Opens a choice point for the variable chosen by the VariableOrder at
+     * the given depth, staging its values in the order given by the
+     * ValueOrder.
+     */
+    private void push (int depth) {
+        int var = options.getVariableOrder().select(assignment, domains, network, depth, random);
+        int size = domains[var].size();
+        if (candidates[depth] == null || candidates[depth].length < size) {
+            candidates[depth] = new long[Math.max(size, 8)];
+        }
+        long[] values = candidates[depth];
+        int count = options.getValueOrder().order(var, assignment, domains, network, values, random);
+        if (hint != null && hint[var] != -1 && domains[var].contains(hint[var])) {
+            int i = 0;
+            while ((int) values[i] != hint[var]) {
+                i++;
+            }
+            long preferred = values[i];
+            System.arraycopy(values, 0, values, 1, i);
+            values[0] = preferred;
+        }
+        stackVar[depth] = var;
+        stackCount[depth] = count;
+        stackNext[depth] = 0;
+        stackMark[depth] = trail.mark();
+        if (backjumper != null) {
+            backjumper.open(depth);
+        }
+    }
+
+    /**
+     * Depth-first search below the starting depth: each iteration either
+     * opens a choice point for the next variable, or retries the current
+     * choice point with its next value, backing up a level once its values
+     * are exhausted.
+     * @param resume Whether to continue after the solution last found,
+     *        rather than start from the starting depth
+     * @return true if the assignment was completed
+     */
+    private boolean iterativeBackTracking (boolean resume) {
+        Propagation propagation = options.getPropagation();
+        boolean descending = !resume;
+        if (!resume) {
+            depth = startDepth;
+        } else if (!backUp()) {
+            return false;
+        }
+        while (true) {
+            if (descending) {
+                if (depth == assignment.length) {
+                    if (backjumper != null) {
+                        backjumper.solutionFound(depth);
+                    }
+                    if (objective != null) {
+                        bound = objective.lowerBound(assignment, domains);
+                    }
+                    if (!counting) {
+                        return true;
+                    }
+                    solutions++;
+                    if (!backUp()) {
+                        return false;
+                    }
+                    descending = false;
+                    continue;
+                }
+                if (cancelled != null && cancelled.get()) {
+                    return false;
+                }
+                if (budget != null && nodes >= nextCharge && !chargeBudget()) {
+                    return false;
+                }
+                if (counting && propagation != Propagation.NONE && depth == assignment.length - 1) {
+                    int var = options.getVariableOrder().select(assignment, domains, network, depth, random);
+                    solutions += domains[var].size();
+                    if (backjumper != null) {
+                        backjumper.solutionFound(depth);
+                    }
+                    if (!backUp()) {
+                        return false;
+                    }
+                    descending = false;
+                    continue;
+                }
+                push(depth);
+            }
+            int var = stackVar[depth];
+            long[] values = candidates[depth];
+            descending = false;
+            while (stackNext[depth] < stackCount[depth]) {
+                trail.undoTo(stackMark[depth]);
+                assignment[var] = (int) values[stackNext[depth]++];
+                nodes++;
+                if (backjumper == null) {
+                    if (propagator.assign(var, assignment, propagation) && withinBound()) {
+                        descending = true;
+                        break;
+                    }
+                } else {
+                    backjumper.assigning(depth, var);
+                    if (!propagator.assign(var, assignment, propagation)) {
+                        backjumper.rejected(depth, propagation, propagator);
+                    } else if (!withinBound()) {
+                        backjumper.unexplained(depth);
+                    } else if (backjumper.accepted(depth, var, assignment, propagator)) {
+                        descending = true;
+                        break;
+                    }
+                }
+                if (listener != null) {
+                    listener.rejected(network.meeting(var), network.toDate(assignment[var]), depth);
+                }
+            }
+            if (descending) {
+                if (listener != null) {
+                    listener.assigned(network.meeting(var), network.toDate(assignment[var]), depth);
+                }
+                depth++;
+                continue;
+            }
+            backtracks++;
+            if (listener != null) {
+                listener.backtracked(network.meeting(var), depth);
+            }
+            assignment[var] = -1;
+            trail.undoTo(stackMark[depth]);
+            if (backjumper == null) {
+                if (!backUp()) {
+                    return false;
+                }
+            } else if (!backjump()) {
+                return false;
+            }
+            // Only once the dead end is known not to exhaust the search
+            if (restarts != null && backtracks >= cutoff && !counting) {
+                restart();
+                descending = true;
+            }
+        }
+    }
+
+    /**
+     * @return false if the objective shows that the current assignment cannot
+     *         lead to a solution cheaper than the last one
+     */
+    private boolean withinBound () {
+        return objective == null || objective.lowerBound(assignment, domains) < bound;
+    }
+
+    /**
+     * Charges the nodes tried since the last charge to the budget.
+     * @return false if the budget is exceeded
+     */
+    private boolean chargeBudget () {
+        boolean withinBudget = budget.charge(nodes - charged);
+        charged = nodes;
+        nextCharge = nodes + budget.interval();
+        return withinBudget;
+    }
+
+    /**
+     * Unassigns every variable from the current depth up to the starting
+     * depth, undoing their propagation, and sets the cutoff of the next run.
+     */
+    private void restart () {
+        for (int d = depth; d >= startDepth; d--) {
+            assignment[stackVar[d]] = -1;
+            if (backjumper != null) {
+                backjumper.unassigned(stackVar[d]);
+            }
+        }
+        trail.undoTo(stackMark[startDepth]);
+        if (backjumper != null) {
+            backjumper.restarted();
+        }
+        depth = startDepth;
+        runs++;
+        cutoff = restarts.cutoffAfter(backtracks, runs, options.getRestartBase());
+        if (listener != null) {
+            listener.restarted(runs);
+        }
+    }
+
+    /**
+     * Jumps from the current depth, whose values are exhausted, to the depth
+     * chosen by the Backjumper, unassigning every variable in between.
+     * @return false if there is none, i.e. the search space is exhausted
+     */
+    private boolean backjump () {
+        int target = backjumper.backjump(depth, stackVar, assignment);
+        backjumper.unassigned(stackVar[depth]);
+        for (int d = depth - 1; d > target; d--) {
+            assignment[stackVar[d]] = -1;
+            backjumper.unassigned(stackVar[d]);
+        }
+        if (target < startDepth) {
+            return false;
+        }
+        depth = target;
+        return true;
+    }
+
+    /**
+     * Moves up to the choice point above the current depth.
+     * @return false if there is none, i.e. the search space is exhausted
+     */
+    private boolean backUp () {
+        if (depth == startDepth) {
+            return false;
+        }
+        depth--;
+        return true;
+    }
+
+    /**
+     * Spreads the bits of a seed, as the first values a Random draws from
+     * nearby seeds such as 0, 1, 2 are nearly the same, and so would break
+     * the first ties the same way.
+     */
+    private static long scramble (long seed) {
+        long z = seed * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
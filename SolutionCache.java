@@ -0,0 +1,124 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * SolutionCache: a bounded cache of the results of
+ * {@link CSP#solve(int, LocalDate, LocalDate, java.util.Set, SolverOptions)},
+ * set with {@link SolverOptions#setSolutionCache(SolutionCache)}, so that
+ * solving a problem again returns the solution found the first time
+ * without propagating or searching. Problems are the same when their
+ * CalendarProblems are equal: the same number of meetings, range, and set
+ * of constraints, in whatever order and whichever way round each was
+ * written. A problem shown to have no solution is cached as such, but one
+ * whose solve a limit stopped is not cached at all. Once full, the cache
+ * evicts the problem least recently solved or looked up. A cache may be
+ * shared by solves on any number of threads.
+ */
+public final class SolutionCache {
+
+    private final int capacity;
+
+    /** Solution of each problem, or empty if it has none, least recently used first */
+    private final LinkedHashMap<CalendarProblem, Optional<List<LocalDate>>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param capacity The most problems to keep the results of
+     */
+    public SolutionCache (int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        this.capacity = capacity;
+        entries = new LinkedHashMap<CalendarProblem, Optional<List<LocalDate>>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<CalendarProblem, Optional<List<LocalDate>>> eldest) {
+                if (size() > SolutionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return The cached result of the problem, with a copy of its solution
+     *         or empty if it has none; or null if it is not cached
+     */
+    synchronized Optional<List<LocalDate>> get (CalendarProblem problem) {
+        Optional<List<LocalDate>> result = entries.get(problem);
+        if (result == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return result.map(ArrayList::new);
+    }
+
+    /**
+     * @param solution A solution of the problem, or null if it has none
+     */
+    synchronized void put (CalendarProblem problem, List<LocalDate> solution) {
+        entries.put(problem, (solution == null) ? Optional.empty()
+                : Optional.of(Collections.unmodifiableList(new ArrayList<>(solution))));
+    }
+
+    public int getCapacity () {
+        return capacity;
+    }
+
+    /**
+     * @return The number of problems currently cached
+     */
+    public synchronized int size () {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of solves answered from the cache
+     */
+    public synchronized long getHits () {
+        return hits;
+    }
+
+    /**
+     * @return The number of solves whose problem was not cached
+     */
+    public synchronized long getMisses () {
+        return misses;
+    }
+
+    /**
+     * @return The number of problems dropped to make room for others
+     */
+    public synchronized long getEvictions () {
+        return evictions;
+    }
+
+    /**
+     * Drops every cached problem, keeping the counts.
+     */
+    public synchronized void clear () {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized String toString () {
+        return entries.size() + "/" + capacity + " problems; " + hits + " hits, " + misses + " misses, "
+                + evictions + " evictions";
+    }
+
+}
@@ -0,0 +1,67 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SolverListener: callbacks for tracing a solve, set with
+ * {@link SolverOptions#setListener(SolverListener)}. Every method does
+ * nothing by default, so a listener only overrides the events it needs.
+ * Without a listener, the solver skips these calls entirely. With a
+ * parallel pool, the search events arrive concurrently from its workers.
+ * A problem whose meetings fall into groups that no constraint links is
+ * searched one group at a time, so depths then count only the meetings
+ * of the same group.
+ */
+public interface SolverListener {
+
+    /**
+     * Called once node and arc consistency have run, before searching.
+     * @param consistent false if they already showed there is no solution
+     */
+    default void preprocessed (boolean consistent) {
+    }
+
+    /**
+     * Called when a value is assigned to a meeting and propagation accepts it.
+     * @param depth The number of meetings assigned before this one
+     */
+    default void assigned (int meeting, LocalDate date, int depth) {
+    }
+
+    /**
+     * Called when a value assigned to a meeting fails a constraint check or
+     * empties a domain during propagation.
+     */
+    default void rejected (int meeting, LocalDate date, int depth) {
+    }
+
+    /**
+     * Called when every remaining value of a meeting has failed, before the
+     * search backs up past it.
+     */
+    default void backtracked (int meeting, int depth) {
+    }
+
+    /**
+     * Called when the search gives up on its current assignment and starts
+     * again from the first meeting, as the restart strategy directs.
+     * @param runs The number of runs given up so far
+     */
+    default void restarted (int runs) {
+    }
+
+    /**
+     * Called by {@link CSP#optimize} each time it finds a solution better
+     * than the previous one.
+     */
+    default void improved (List<LocalDate> solution) {
+    }
+
+    /**
+     * Called at the end of a solve.
+     */
+    default void finished (SolverStats stats) {
+    }
+
+}
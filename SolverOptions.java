@@ -0,0 +1,264 @@
+package csp;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * SolverOptions: the search strategies used by
+ * {@link CSP#solve(int, java.time.LocalDate, java.time.LocalDate, java.util.Set, SolverOptions)}.
+ * Setters return this options object so that they can be chained, e.g.:
+ * new SolverOptions().setVariableOrder(VariableOrder.MRV).setValueOrder(ValueOrder.LCV)
+ * The time limit, node limit and cancellation token bound CSP.solve,
+ * CSP.solveDetailed and BatchSolver; a solve that exceeds one of them
+ * stops with an UNKNOWN {@link SolverResult.Status}.
+ */
+public class SolverOptions {
+
+    private VariableOrder variableOrder = VariableOrder.INDEX;
+    private ValueOrder valueOrder = ValueOrder.ASCENDING;
+    private Propagation propagation = Propagation.NONE;
+    private ForkJoinPool parallelPool;
+    private boolean backjumping;
+    private boolean symmetryBreaking;
+    private RestartStrategy restartStrategy = RestartStrategy.NONE;
+    private long restartBase = 100;
+    private long randomSeed;
+    private SolverListener listener;
+    private Duration timeLimit;
+    private long nodeLimit = Long.MAX_VALUE;
+    private CancellationToken cancellationToken;
+    private SolutionCache solutionCache;
+
+    public VariableOrder getVariableOrder () {
+        return variableOrder;
+    }
+
+    /**
+     * @param variableOrder How the next meeting to assign is chosen
+     *        (default: INDEX)
+     * @return This options object
+     */
+    public SolverOptions setVariableOrder (VariableOrder variableOrder) {
+        if (variableOrder == null) {
+            throw new IllegalArgumentException("Invalid variable order");
+        }
+        this.variableOrder = variableOrder;
+        return this;
+    }
+
+    public ValueOrder getValueOrder () {
+        return valueOrder;
+    }
+
+    /**
+     * @param valueOrder The order in which a meeting's dates are tried
+     *        (default: ASCENDING)
+     * @return This options object
+     */
+    public SolverOptions setValueOrder (ValueOrder valueOrder) {
+        if (valueOrder == null) {
+            throw new IllegalArgumentException("Invalid value order");
+        }
+        this.valueOrder = valueOrder;
+        return this;
+    }
+
+    public Propagation getPropagation () {
+        return propagation;
+    }
+
+    /**
+     * @param propagation How much pruning to do after each assignment
+     *        (default: NONE)
+     * @return This options object
+     */
+    public SolverOptions setPropagation (Propagation propagation) {
+        if (propagation == null) {
+            throw new IllegalArgumentException("Invalid propagation");
+        }
+        this.propagation = propagation;
+        return this;
+    }
+
+    public ForkJoinPool getParallelPool () {
+        return parallelPool;
+    }
+
+    /**
+     * @param parallelPool Pool to split the search across, e.g.
+     *        ForkJoinPool.commonPool(), or null to search on the calling
+     *        thread (default: null)
+     * @return This options object
+     */
+    public SolverOptions setParallelPool (ForkJoinPool parallelPool) {
+        this.parallelPool = parallelPool;
+        return this;
+    }
+
+    public boolean isBackjumping () {
+        return backjumping;
+    }
+
+    /**
+     * @param backjumping Whether a dead end jumps straight back to the most
+     *        recent meeting it conflicted with, learning a nogood on the way,
+     *        instead of to the previous meeting. Effective without propagation
+     *        and with forward checking; MAC dead ends back up one meeting at a
+     *        time (default: false)
+     * @return This options object
+     */
+    public SolverOptions setBackjumping (boolean backjumping) {
+        this.backjumping = backjumping;
+        return this;
+    }
+
+    public boolean isSymmetryBreaking () {
+        return symmetryBreaking;
+    }
+
+    /**
+     * @param symmetryBreaking Whether meetings that every constraint treats
+     *        alike, so that swapping their dates in a solution gives another,
+     *        are ordered by index before searching, so that only one order
+     *        of their dates is ever explored. Used by CSP.solve,
+     *        CSP.solveDetailed, CSP.optimize and BatchSolver, but not when
+     *        counting or enumerating solutions (default: false)
+     * @return This options object
+     */
+    public SolverOptions setSymmetryBreaking (boolean symmetryBreaking) {
+        this.symmetryBreaking = symmetryBreaking;
+        return this;
+    }
+
+    public RestartStrategy getRestartStrategy () {
+        return restartStrategy;
+    }
+
+    /**
+     * @param restartStrategy When a search looking for one solution, or for
+     *        a cheaper one in CSP.optimize, starts again from the first
+     *        meeting, with ties in the variable and value orders broken at
+     *        random; restarts are not used when counting or enumerating
+     *        solutions, or in a parallel search (default: NONE)
+     * @return This options object
+     */
+    public SolverOptions setRestartStrategy (RestartStrategy restartStrategy) {
+        if (restartStrategy == null) {
+            throw new IllegalArgumentException("Invalid restart strategy");
+        }
+        this.restartStrategy = restartStrategy;
+        return this;
+    }
+
+    public long getRestartBase () {
+        return restartBase;
+    }
+
+    /**
+     * @param restartBase Backtracks per unit of the restart strategy's
+     *        cutoffs, e.g. the length of the shortest runs (default: 100)
+     * @return This options object
+     */
+    public SolverOptions setRestartBase (long restartBase) {
+        if (restartBase < 1) {
+            throw new IllegalArgumentException("Invalid restart base");
+        }
+        this.restartBase = restartBase;
+        return this;
+    }
+
+    public long getRandomSeed () {
+        return randomSeed;
+    }
+
+    /**
+     * @param randomSeed Seed of the random tie-breaking used with a restart
+     *        strategy, so that a solve with the same options and problem
+     *        searches the same way every time (default: 0)
+     * @return This options object
+     */
+    public SolverOptions setRandomSeed (long randomSeed) {
+        this.randomSeed = randomSeed;
+        return this;
+    }
+
+    public SolverListener getListener () {
+        return listener;
+    }
+
+    /**
+     * @param listener Receives the events of every solve, or null for none
+     *        (default: null)
+     * @return This options object
+     */
+    public SolverOptions setListener (SolverListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public Duration getTimeLimit () {
+        return timeLimit;
+    }
+
+    /**
+     * @param timeLimit How long each solve may run, from when it starts, or
+     *        null for no limit (default: null); a limit of more than a
+     *        century, such as ChronoUnit.FOREVER's, is no limit either
+     * @return This options object
+     */
+    public SolverOptions setTimeLimit (Duration timeLimit) {
+        if (timeLimit != null && timeLimit.isNegative()) {
+            throw new IllegalArgumentException("Invalid time limit");
+        }
+        this.timeLimit = timeLimit;
+        return this;
+    }
+
+    public long getNodeLimit () {
+        return nodeLimit;
+    }
+
+    /**
+     * @param nodeLimit How many values each solve may try, as counted by
+     *        {@link SolverStats#getNodes()} (default: Long.MAX_VALUE)
+     * @return This options object
+     */
+    public SolverOptions setNodeLimit (long nodeLimit) {
+        if (nodeLimit < 0) {
+            throw new IllegalArgumentException("Invalid node limit");
+        }
+        this.nodeLimit = nodeLimit;
+        return this;
+    }
+
+    public CancellationToken getCancellationToken () {
+        return cancellationToken;
+    }
+
+    /**
+     * @param cancellationToken Token that stops every solve using these
+     *        options once cancelled, or null for none (default: null)
+     * @return This options object
+     */
+    public SolverOptions setCancellationToken (CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
+    public SolutionCache getSolutionCache () {
+        return solutionCache;
+    }
+
+    /**
+     * @param solutionCache Cache that CSP.solve looks each problem up in
+     *        before solving it, and stores its result in after, or null for
+     *        none (default: null). A cached solution was found with the
+     *        options of the solve that cached it.
+     * @return This options object
+     */
+    public SolverOptions setSolutionCache (SolutionCache solutionCache) {
+        this.solutionCache = solutionCache;
+        return this;
+    }
+
+}
@@ -0,0 +1,59 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * SolverResult: the outcome of
+ * {@link CSP#solveDetailed(int, LocalDate, LocalDate, java.util.Set, SolverOptions)},
+ * i.e. whether a solution was found, the solution, and the statistics of
+ * the solve.
+ */
+public final class SolverResult {
+
+    /**
+     * How a solve ended.
+     */
+    public enum Status {
+        /** A solution was found */
+        SATISFIABLE,
+        /** A solution was found and proven best for the objective optimized */
+        OPTIMAL,
+        /** The whole search space was explored without finding a solution */
+        UNSATISFIABLE,
+        /** The solve ran out of time or nodes, or was cancelled, first */
+        UNKNOWN
+    }
+
+    private final Status status;
+    private final List<LocalDate> solution;
+    private final SolverStats stats;
+
+    SolverResult (Status status, List<LocalDate> solution, SolverStats stats) {
+        this.status = status;
+        this.solution = solution;
+        this.stats = stats;
+    }
+
+    public Status getStatus () {
+        return status;
+    }
+
+    /**
+     * @return The meeting dates if the status is SATISFIABLE or OPTIMAL, or
+     *         else null
+     */
+    public List<LocalDate> getSolution () {
+        return solution;
+    }
+
+    public SolverStats getStats () {
+        return stats;
+    }
+
+    @Override
+    public String toString () {
+        return status + " " + solution + " (" + stats + ")";
+    }
+
+}
@@ -0,0 +1,236 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SolverSession: a calendar that is edited one constraint at a time and
+ * re-solved after each edit, reusing the work of the previous solve:
+ * <ul>
+ *   <li>Adding a constraint only ever shrinks domains, so the node and arc
+ *       consistent domains of the last solve are kept and only the
+ *       variables of new constraints are propagated again. Removing a
+ *       constraint or changing the range discards them.</li>
+ *   <li>The last solution is returned without searching for as long as it
+ *       still satisfies every constraint and lies in the range, and once no
+ *       solution is found, adding constraints cannot produce one.</li>
+ *   <li>Otherwise the search tries each meeting's previous date first, so
+ *       a small edit typically only moves the meetings it affects.</li>
+ * </ul>
+ */
+public class SolverSession {
+
+    private final int nMeetings;
+    private final SolverOptions options;
+    private final Set<DateConstraint> constraints;
+    private LocalDate rangeStart;
+    private LocalDate rangeEnd;
+
+    /** Consistent domains of the last propagation, or null to recompute */
+    private DateDomain[] propagated;
+
+    /** Constraints added since propagated was computed */
+    private final List<DateConstraint> pending = new ArrayList<>();
+
+    /** Last solution found, used to seed the next search, or null */
+    private List<LocalDate> previous;
+
+    /** True while previous satisfies every constraint and the range */
+    private boolean current;
+
+    /** True while the last solve found no solution and none can exist since */
+    private boolean unsatisfiable;
+
+    public SolverSession (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+            Set<DateConstraint> constraints) {
+        this(nMeetings, rangeStart, rangeEnd, constraints, new SolverOptions());
+    }
+
+    /**
+     * @param nMeetings The number of meetings that must be scheduled, indexed
+     *        from 0 to n-1
+     * @param rangeStart The start date (inclusive) of every meeting's domain
+     * @param rangeEnd The end date (inclusive) of every meeting's domain
+     * @param constraints The initial constraints on the meeting times
+     * @param options Search strategies used by every solve
+     */
+    public SolverSession (int nMeetings, LocalDate rangeStart, LocalDate rangeEnd,
+            Set<DateConstraint> constraints, SolverOptions options) {
+        this.nMeetings = nMeetings;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        this.options = options;
+        this.constraints = new HashSet<>();
+        for (DateConstraint d : constraints) {
+            checkIndexes(d);
+            this.constraints.add(d);
+        }
+    }
+
+    /**
+     * @param d Constraint to add to the calendar
+     * @return false if the constraint, or one equal to it, was already
+     *         present
+     */
+    public boolean addConstraint (DateConstraint d) {
+        checkIndexes(d);
+        if (!constraints.add(d)) {
+            return false;
+        }
+        pending.add(d);
+        if (current && !isSatisfied(d, previous)) {
+            current = false;
+        }
+        return true;
+    }
+
+    /**
+     * @param d Constraint to remove from the calendar, or one equal to it,
+     *        e.g. "1 &gt; 0" for "0 &lt; 1"
+     * @return false if the constraint was not present
+     */
+    public boolean removeConstraint (DateConstraint d) {
+        if (!constraints.remove(d)) {
+            return false;
+        }
+        propagated = null;
+        pending.clear();
+        unsatisfiable = false;
+        return true;
+    }
+
+    /**
+     * @param rangeStart The new start date (inclusive) of every meeting's domain
+     * @param rangeEnd The new end date (inclusive) of every meeting's domain
+     */
+    public void changeRange (LocalDate rangeStart, LocalDate rangeEnd) {
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+        propagated = null;
+        pending.clear();
+        unsatisfiable = false;
+        if (current) {
+            for (LocalDate date : previous) {
+                if (date.isBefore(rangeStart) || date.isAfter(rangeEnd)) {
+                    current = false;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A list of dates that satisfies each of the session's current
+     *         constraints, indexed by meeting, or null if no solution exists.
+     */
+    public List<LocalDate> solve () {
+        if (current) {
+            return new ArrayList<>(previous);
+        }
+        if (unsatisfiable) {
+            return null;
+        }
+        ConstraintNetwork network = new ConstraintNetwork(nMeetings, rangeStart, rangeEnd, constraints);
+        if (network.contradictory || !propagate(network)) {
+            unsatisfiable = true;
+            return null;
+        }
+
+        DateDomain[] domains = new DateDomain[nMeetings];
+        for (int v = 0; v < nMeetings; v++) {
+            domains[v] = new DateDomain(propagated[v]);
+        }
+        int[] result;
+        if (options.getParallelPool() == null) {
+            Search search = new Search(network, domains, options);
+            search.allowRestarts();
+            if (previous != null) {
+                int[] hint = new int[nMeetings];
+                for (int v = 0; v < nMeetings; v++) {
+                    hint[v] = network.toOffset(previous.get(v));
+                }
+                search.preferValues(hint);
+            }
+            result = search.solve();
+        } else {
+            result = new ParallelSearch(network, options, options.getParallelPool(), new SolverStats(), null)
+                    .solve(domains);
+        }
+        if (result == null) {
+            unsatisfiable = true;
+            return null;
+        }
+        previous = CSP.toDates(network, result);
+        current = true;
+        return new ArrayList<>(previous);
+    }
+
+    /**
+     * Brings the propagated domains up to date with the constraints, from
+     * scratch if they were discarded, or else by applying only the pending
+     * constraints and propagating from their variables.
+     * @return false if some domain was emptied
+     */
+    private boolean propagate (ConstraintNetwork network) {
+        if (propagated == null) {
+            propagated = CSP.makeDomains(network);
+            pending.clear();
+            Propagator propagator = new Propagator(network, propagated);
+            return propagator.nodeConsistency() && TemporalNetwork.tighten(network, propagated)
+                    && propagator.arcConsistency();
+        }
+        Propagator propagator = new Propagator(network, propagated);
+        for (DateConstraint d : pending) {
+            if (d instanceof AllDifferentDateConstraint) {
+                for (int m : ((AllDifferentDateConstraint) d).MEETINGS) {
+                    propagator.markChanged(m);
+                }
+            } else if (d.arity() == 1) {
+                UnaryDateConstraint u = (UnaryDateConstraint) d;
+                Propagator.restrict(propagated[u.L_VAL], Operator.of(u.OP), network.toOffset(u.R_VAL));
+                if (propagated[u.L_VAL].isEmpty()) {
+                    return false;
+                }
+                propagator.markChanged(u.L_VAL);
+            } else {
+                propagator.markChanged(d.L_VAL);
+                propagator.markChanged(((BinaryDateConstraint) d).R_VAL);
+            }
+        }
+        pending.clear();
+        return propagator.propagate();
+    }
+
+    private void checkIndexes (DateConstraint d) {
+        int rVal;
+        if (d instanceof AllDifferentDateConstraint) {
+            List<Integer> meetings = ((AllDifferentDateConstraint) d).MEETINGS;
+            rVal = meetings.get(meetings.size() - 1);
+        } else {
+            rVal = (d.arity() == 1) ? 0 : ((BinaryDateConstraint) d).R_VAL;
+        }
+        if (d.L_VAL >= nMeetings || rVal >= nMeetings) {
+            throw new IllegalArgumentException("Invalid variable index");
+        }
+    }
+
+    private static boolean isSatisfied (DateConstraint d, List<LocalDate> solution) {
+        if (d instanceof AllDifferentDateConstraint) {
+            Set<LocalDate> dates = new HashSet<>();
+            for (int m : ((AllDifferentDateConstraint) d).MEETINGS) {
+                if (!dates.add(solution.get(m))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        LocalDate leftDate = solution.get(d.L_VAL);
+        LocalDate rightDate = (d.arity() == 1) ? ((UnaryDateConstraint) d).R_VAL
+                : solution.get(((BinaryDateConstraint) d).R_VAL);
+        return Operator.of(d.OP).test(leftDate, rightDate);
+    }
+
+}
@@ -0,0 +1,106 @@
+package csp;
+
+/**
+ * SolverStats: what one solve spent its time on. Counters are kept in plain
+ * fields by the Propagator and Search that do the work and added in here
+ * once they finish, so collecting them costs one increment per event and
+ * no synchronization until the end of the solve.
+ */
+public final class SolverStats {
+
+    private long nodes;
+    private long backtracks;
+    private long constraintChecks;
+    private long revisions;
+    private long restarts;
+    private long nodeConsistencyNanos;
+    private long arcConsistencyNanos;
+    private long searchNanos;
+
+    /**
+     * @return The number of values assigned to meetings during search,
+     *         whether or not they were consistent
+     */
+    public long getNodes () {
+        return nodes;
+    }
+
+    /**
+     * @return The number of dead ends, i.e. meetings whose values all failed
+     *         below the current assignment
+     */
+    public long getBacktracks () {
+        return backtracks;
+    }
+
+    /**
+     * @return The number of constraints tested against an assignment
+     */
+    public long getConstraintChecks () {
+        return constraintChecks;
+    }
+
+    /**
+     * @return The number of arcs revised by arc consistency, MAC and forward
+     *         checking
+     */
+    public long getRevisions () {
+        return revisions;
+    }
+
+    /**
+     * @return The number of times the search started again from the first
+     *         meeting
+     */
+    public long getRestarts () {
+        return restarts;
+    }
+
+    public long getNodeConsistencyNanos () {
+        return nodeConsistencyNanos;
+    }
+
+    /**
+     * @return Time spent making the domains arc consistent, including
+     *         tightening their bounds by the ordering constraints first
+     */
+    public long getArcConsistencyNanos () {
+        return arcConsistencyNanos;
+    }
+
+    public long getSearchNanos () {
+        return searchNanos;
+    }
+
+    /**
+     * Adds the counters of one Search or Propagator; synchronized since the
+     * branches of a parallel search finish on different threads.
+     */
+    synchronized void add (long nodes, long backtracks, long constraintChecks, long revisions) {
+        this.nodes += nodes;
+        this.backtracks += backtracks;
+        this.constraintChecks += constraintChecks;
+        this.revisions += revisions;
+    }
+
+    synchronized void addRestarts (long restarts) {
+        this.restarts += restarts;
+    }
+
+    void setPreprocessingTimes (long nodeConsistencyNanos, long arcConsistencyNanos) {
+        this.nodeConsistencyNanos = nodeConsistencyNanos;
+        this.arcConsistencyNanos = arcConsistencyNanos;
+    }
+
+    void setSearchTime (long searchNanos) {
+        this.searchNanos = searchNanos;
+    }
+
+    @Override
+    public synchronized String toString () {
+        return nodes + " nodes, " + backtracks + " backtracks, " + constraintChecks + " checks, "
+                + revisions + " revisions, " + restarts + " restarts; node consistency " + nodeConsistencyNanos / 1000
+                + "us, arc consistency " + arcConsistencyNanos / 1000 + "us, search " + searchNanos / 1000 + "us";
+    }
+
+}
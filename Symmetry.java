@@ -0,0 +1,147 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symmetry: breaks the symmetry between interchangeable meetings, i.e.
+ * meetings such that swapping any two of them maps the constraints onto
+ * themselves, e.g. attendees' slots that are each constrained only by the
+ * same window and the same "!=" to one chair. Swapping the dates of two
+ * such meetings in a solution gives another solution, so a search that
+ * refutes one order of their dates refutes every other one again, k! times
+ * over for k meetings. Chaining each class of interchangeable meetings in
+ * increasing order of index, "m1 &lt;= m2 &lt;= ... &lt;= mk" (or "&lt;" if
+ * they must all differ), keeps one solution of each such family, so the
+ * problem stays satisfiable exactly when it was, but its other orders are
+ * never explored. Meetings are compared on normalized constraints, where
+ * each pair has at most one binary constraint and each meeting's unary
+ * constraints have one canonical form.
+ */
+final class Symmetry {
+
+    /**
+     * Most classes a group of meetings with the same constraint counts is
+     * split into before its remaining meetings are left alone, which bounds
+     * the pairwise comparisons on a large asymmetric group
+     */
+    private static final int MAX_CLASSES = 64;
+
+    private Symmetry () {
+    }
+
+    /**
+     * Adds an ordering chain over each class of interchangeable meetings,
+     * in place of any "!=" already between consecutive ones.
+     * @param constraints Normalized constraints on meetings indexed from 0
+     *        to nMeetings - 1
+     * @return The number of classes chained
+     */
+    static int breakSymmetry (int nMeetings, Set<DateConstraint> constraints) {
+        List<List<Object>> unary = new ArrayList<>(nMeetings);
+        List<List<Integer>> allDiffs = new ArrayList<>(nMeetings);
+        List<Map<Integer, Operator>> neighbours = new ArrayList<>(nMeetings);
+        int[][] opCounts = new int[nMeetings][Operator.values().length];
+        for (int m = 0; m < nMeetings; m++) {
+            unary.add(new ArrayList<>());
+            allDiffs.add(new ArrayList<>());
+            neighbours.add(new HashMap<>());
+        }
+        int nAllDiffs = 0;
+        for (DateConstraint d : constraints) {
+            if (d instanceof AllDifferentDateConstraint) {
+                for (int m : ((AllDifferentDateConstraint) d).MEETINGS) {
+                    allDiffs.get(m).add(nAllDiffs);
+                }
+                nAllDiffs++;
+            } else if (d.arity() == 1) {
+                unary.get(d.L_VAL).add(d.OP);
+                unary.get(d.L_VAL).add(((UnaryDateConstraint) d).R_VAL);
+            } else {
+                int right = ((BinaryDateConstraint) d).R_VAL;
+                Operator op = Operator.of(d.OP);
+                neighbours.get(d.L_VAL).put(right, op);
+                neighbours.get(right).put(d.L_VAL, op.converse());
+                opCounts[d.L_VAL][op.ordinal()]++;
+                opCounts[right][op.converse().ordinal()]++;
+            }
+        }
+
+        // Interchangeable meetings have the same unary constraints,
+        // AllDifferent constraints and count of each operator; within each
+        // such group, a meeting joins the first class whose first meeting it
+        // can be swapped with, as interchangeability is an equivalence
+        Map<List<Object>, List<List<Integer>>> groups = new LinkedHashMap<>();
+        for (int m = 0; m < nMeetings; m++) {
+            List<Object> key = Arrays.asList(unary.get(m), allDiffs.get(m), Arrays.toString(opCounts[m]));
+            List<List<Integer>> classes = groups.get(key);
+            if (classes == null) {
+                classes = new ArrayList<>();
+                groups.put(key, classes);
+            }
+            boolean placed = false;
+            for (List<Integer> c : classes) {
+                if (swappable(neighbours, c.get(0), m)) {
+                    c.add(m);
+                    placed = true;
+                    break;
+                }
+            }
+            if (!placed && classes.size() < MAX_CLASSES) {
+                List<Integer> c = new ArrayList<>();
+                c.add(m);
+                classes.add(c);
+            }
+        }
+
+        int chained = 0;
+        for (List<List<Integer>> classes : groups.values()) {
+            for (List<Integer> c : classes) {
+                if (c.size() < 2) {
+                    continue;
+                }
+                Operator between = neighbours.get(c.get(0)).get(c.get(1));
+                if (between == Operator.EQ) {
+                    continue;
+                }
+                boolean distinct = between == Operator.NE || !allDiffs.get(c.get(0)).isEmpty();
+                for (int i = 0; i + 1 < c.size(); i++) {
+                    if (between == Operator.NE) {
+                        constraints.remove(new BinaryDateConstraint(c.get(i), "!=", c.get(i + 1)));
+                    }
+                    constraints.add(new BinaryDateConstraint(c.get(i), distinct ? "<" : "<=", c.get(i + 1)));
+                }
+                chained++;
+            }
+        }
+        return chained;
+    }
+
+    /**
+     * @return Whether swapping the two meetings maps every binary
+     *         constraint onto one that is also present
+     */
+    private static boolean swappable (List<Map<Integer, Operator>> neighbours, int a, int b) {
+        Map<Integer, Operator> ofA = neighbours.get(a);
+        Map<Integer, Operator> ofB = neighbours.get(b);
+        Operator between = ofA.get(b);
+        if (between != null && between.converse() != between) {
+            return false;
+        }
+        for (Map.Entry<Integer, Operator> e : ofA.entrySet()) {
+            int other = e.getKey();
+            if (other != b && e.getValue() != ofB.get(other)) {
+                return false;
+            }
+        }
+        // Both have the same count of each operator, so the same number of
+        // neighbours, and so ofB has nothing ofA lacks
+        return true;
+    }
+
+}
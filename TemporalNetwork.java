@@ -0,0 +1,126 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * TemporalNetwork: preprocessing of the ordering and "==" constraints of a
+ * network, which are all difference constraints "x - y <= c" (e.g. "x < y"
+ * is "x - y <= -1"), so that together with the bounds of the domains they
+ * form a simple temporal network. The tightest bounds they imply for each
+ * meeting are its shortest path distances in that network, which the
+ * Bellman-Ford algorithm finds in time polynomial in the number of
+ * constraints, where AC-3 can take time proportional to the number of
+ * days: around a cycle such as "x < y", "y < x", each revision only
+ * removes one day. A path as long as there are meetings shows a negative
+ * cycle, i.e. constraints that contradict each other, which is reported
+ * at once. Holes in the domains are ignored, so arc consistency still has
+ * to run afterwards, but it then starts from the tightened bounds.
+ */
+final class TemporalNetwork {
+
+    private TemporalNetwork () {
+    }
+
+    /**
+     * Tightens the bounds of every domain to those implied by the ordering
+     * and "==" constraints.
+     * @param domains Node consistent domains
+     * @return false if some domain was emptied or the constraints contain a
+     *         negative cycle, i.e. there is no solution
+     */
+    static boolean tighten (ConstraintNetwork network, DateDomain[] domains) {
+        int n = network.nMeetings;
+        int[] upper = new int[n];
+        int[] lower = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (domains[v].isEmpty()) {
+                return false;
+            }
+            upper[v] = domains[v].max();
+            lower[v] = -domains[v].min();
+        }
+        // Upper bounds are shortest paths along the arcs "tail - head <= c"
+        // taken backwards, and lower bounds, negated, along them forwards
+        if (!shortestPaths(network, upper, lower, false) || !shortestPaths(network, lower, upper, true)) {
+            return false;
+        }
+        for (int v = 0; v < n; v++) {
+            domains[v].removeAbove(upper[v]);
+            domains[v].removeBelow(-lower[v]);
+            if (domains[v].isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The largest c for which arc "tail op head" implies "tail - head <= c",
+     * or Integer.MAX_VALUE if it implies none.
+     */
+    private static int weight (Operator op) {
+        switch (op) {
+        case LT: return -1;
+        case LE:
+        case EQ: return 0;
+        default: return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Lowers distance[tail] to distance[head] + c along every arc "tail -
+     * head <= c" (or, if converse, distance[head] to distance[tail] + c),
+     * queue based, until no distance changes. Each distance starts as the length of a
+     * one-arc path from a virtual origin, so a shortest path is at most n
+     * arcs long unless it runs around a negative cycle.
+     * @param opposite The distances in the other direction, negated, which
+     *        each distance must stay above
+     * @return false if some distance passed its opposite or a path grew
+     *         longer than n arcs
+     */
+    private static boolean shortestPaths (ConstraintNetwork network, int[] distance, int[] opposite,
+            boolean converse) {
+        int n = network.nMeetings;
+        int[] length = new int[n];
+        Arrays.fill(length, 1);
+        int[] queue = new int[n];
+        boolean[] queued = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            queue[v] = v;
+            queued[v] = true;
+        }
+        int first = 0;
+        int pending = n;
+        while (pending > 0) {
+            int v = queue[first];
+            first = (first + 1 == n) ? 0 : first + 1;
+            pending--;
+            queued[v] = false;
+            // Arcs "u op v" bound u's upper bound by v's; arcs "v op u"
+            // bound u's lower bound by v's
+            for (int a : converse ? network.outgoing[v] : network.incoming[v]) {
+                int w = weight(network.arcOp[a]);
+                if (w == Integer.MAX_VALUE) {
+                    continue;
+                }
+                int u = converse ? network.arcHead[a] : network.arcTail[a];
+                int relaxed = distance[v] + w;
+                if (relaxed >= distance[u]) {
+                    continue;
+                }
+                distance[u] = relaxed;
+                length[u] = length[v] + 1;
+                if (length[u] > n || distance[u] < -opposite[u]) {
+                    return false;
+                }
+                if (!queued[u]) {
+                    queue[(first + pending) % n] = u;
+                    queued[u] = true;
+                    pending++;
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,64 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * Trail: the undo log of domain removals made during search. Every bitset
+ * word a DateDomain overwrites is pushed here with its previous value, so
+ * backtracking to a mark restores the domains exactly without copying them
+ * at each node. Storage grows geometrically and is reused across nodes.
+ */
+final class Trail {
+
+    private DateDomain[] owners = new DateDomain[256];
+    private int[] indices = new int[256];
+    private long[] saved = new long[256];
+    private int size;
+
+    private DateDomain[] restored = new DateDomain[16];
+
+    /**
+     * @return A mark that undoTo() can later return the domains to
+     */
+    int mark () {
+        return size;
+    }
+
+    void save (DateDomain owner, int w, long word) {
+        if (size == owners.length) {
+            int capacity = 2 * size;
+            owners = Arrays.copyOf(owners, capacity);
+            indices = Arrays.copyOf(indices, capacity);
+            saved = Arrays.copyOf(saved, capacity);
+        }
+        owners[size] = owner;
+        indices[size] = w;
+        saved[size] = word;
+        size++;
+    }
+
+    /**
+     * Restores every word saved since the given mark, newest first, then
+     * recounts each domain that was touched.
+     * @param mark A value previously returned by mark()
+     */
+    void undoTo (int mark) {
+        int nRestored = 0;
+        while (size > mark) {
+            size--;
+            DateDomain owner = owners[size];
+            owners[size] = null;
+            if (owner.restoreWord(indices[size], saved[size])) {
+                if (nRestored == restored.length) {
+                    restored = Arrays.copyOf(restored, 2 * nRestored);
+                }
+                restored[nRestored++] = owner;
+            }
+        }
+        for (int i = 0; i < nRestored; i++) {
+            restored[i].recount();
+            restored[i] = null;
+        }
+    }
+
+}
@@ -30,6 +30,24 @@ public class UnaryDateConstraint extends DateConstraint {
         R_VAL = rVal;
     }
     
+    /**
+     * Two UnaryDateConstraints are equal when they compare the same
+     * meeting to the same date with the same operator.
+     */
+    @Override
+    public boolean equals (Object other) {
+        if (!(other instanceof UnaryDateConstraint)) {
+            return false;
+        }
+        UnaryDateConstraint u = (UnaryDateConstraint) other;
+        return L_VAL == u.L_VAL && OP.equals(u.OP) && R_VAL.equals(u.R_VAL);
+    }
+    
+    @Override
+    public int hashCode () {
+        return (31 * L_VAL + OP.hashCode()) * 31 + R_VAL.hashCode();
+    }
+    
     @Override
     public String toString () {
         return super.toString() + " " + R_VAL;
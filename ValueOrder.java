@@ -0,0 +1,111 @@
+package csp;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * ValueOrder: strategies for the order in which the backtracking search
+ * tries the dates left in a meeting's domain.
+ */
+public enum ValueOrder {
+
+    /**
+     * Dates are tried in calendar order.
+     */
+    ASCENDING {
+        @Override
+        int order (int var, int[] assignment, DateDomain[] domains, ConstraintNetwork network, long[] values,
+                Random random) {
+            DateDomain domain = domains[var];
+            int n = 0;
+            for (int day = domain.next(0); day != -1; day = domain.next(day + 1)) {
+                values[n++] = day;
+            }
+            return n;
+        }
+    },
+
+    /**
+     * Least constraining value: dates that rule out the fewest dates from
+     * the domains of the meeting's unassigned neighbours are tried first,
+     * with ties tried in calendar order, or in random order when restarting.
+     */
+    LCV {
+        @Override
+        int order (int var, int[] assignment, DateDomain[] domains, ConstraintNetwork network, long[] values,
+                Random random) {
+            DateDomain domain = domains[var];
+            int n = 0;
+            for (int day = domain.next(0); day != -1; day = domain.next(day + 1)) {
+                long eliminated = 0;
+                for (int a : network.outgoing[var]) {
+                    int head = network.arcHead[a];
+                    if (assignment[head] == -1) {
+                        eliminated += eliminated(day, network.arcOp[a], domains[head]);
+                    }
+                }
+                for (int c : network.allDiffOf[var]) {
+                    for (int other : network.allDiffVars[c]) {
+                        if (other != var && assignment[other] == -1) {
+                            eliminated += eliminated(day, Operator.NE, domains[other]);
+                        }
+                    }
+                }
+                values[n++] = (eliminated << 32) | day;
+            }
+            Arrays.sort(values, 0, n);
+            if (random != null) {
+                shuffleTies(values, n, random);
+            }
+            return n;
+        }
+    };
+
+    /**
+     * @param var The variable about to be assigned
+     * @param assignment Day offset assigned to each variable, or -1 if unassigned
+     * @param domains Current domain of each variable
+     * @param network Compiled constraints of the problem
+     * @param values Buffer with room for every value of var's domain; on
+     *        return its low 32 bits hold the values in the order they
+     *        should be tried
+     * @param random Breaks ties uniformly at random, or null to break them
+     *        in calendar order
+     * @return The number of values written
+     */
+    abstract int order (int var, int[] assignment, DateDomain[] domains, ConstraintNetwork network, long[] values,
+            Random random);
+
+    /**
+     * Shuffles each run of values with the same key in their high 32 bits.
+     */
+    private static void shuffleTies (long[] values, int n, Random random) {
+        int start = 0;
+        for (int i = 1; i <= n; i++) {
+            if (i == n || (values[i] >>> 32) != (values[start] >>> 32)) {
+                for (int j = i - 1; j > start; j--) {
+                    int k = start + random.nextInt(j - start + 1);
+                    long swap = values[j];
+                    values[j] = values[k];
+                    values[k] = swap;
+                }
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * Counts the values y of other for which "value op y" does not hold.
+     */
+    private static int eliminated (int value, Operator op, DateDomain other) {
+        switch (op) {
+        case EQ: return other.size() - (other.contains(value) ? 1 : 0);
+        case NE: return other.contains(value) ? 1 : 0;
+        case LT: return other.countBelow(value + 1);
+        case LE: return other.countBelow(value);
+        case GT: return other.size() - other.countBelow(value);
+        default: return other.size() - other.countBelow(value + 1);
+        }
+    }
+
+}
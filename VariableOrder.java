@@ -0,0 +1,83 @@
+package csp;
+
+import java.util.Random;
+
+/**
+ * VariableOrder: strategies for choosing which meeting the backtracking
+ * search assigns next.
+ */
+public enum VariableOrder {
+
+    /**
+     * Meetings are assigned in index order, 0 to n-1.
+     */
+    INDEX {
+        @Override
+        int select (int[] assignment, DateDomain[] domains, ConstraintNetwork network, int depth, Random random) {
+            return depth;
+        }
+    },
+
+    /**
+     * Minimum remaining values: the unassigned meeting with the fewest dates
+     * left in its domain, breaking ties by the largest number of binary
+     * constraints to other unassigned meetings (the degree heuristic, which
+     * counts an AllDifferent constraint as one per other meeting in it) and
+     * then by lowest index, or at random when restarting.
+     */
+    MRV {
+        @Override
+        int select (int[] assignment, DateDomain[] domains, ConstraintNetwork network, int depth, Random random) {
+            int best = -1;
+            int bestSize = Integer.MAX_VALUE;
+            int bestDegree = -1;
+            int ties = 0;
+            for (int v = 0; v < assignment.length; v++) {
+                if (assignment[v] != -1) {
+                    continue;
+                }
+                int size = domains[v].size();
+                if (size > bestSize) {
+                    continue;
+                }
+                int degree = 0;
+                for (int a : network.outgoing[v]) {
+                    if (assignment[network.arcHead[a]] == -1) {
+                        degree++;
+                    }
+                }
+                for (int c : network.allDiffOf[v]) {
+                    for (int other : network.allDiffVars[c]) {
+                        if (other != v && assignment[other] == -1) {
+                            degree++;
+                        }
+                    }
+                }
+                if (size < bestSize || degree > bestDegree) {
+                    best = v;
+                    bestSize = size;
+                    bestDegree = degree;
+                    ties = 1;
+                } else if (degree == bestDegree && random != null && random.nextInt(++ties) == 0) {
+                    // Each of the tied variables seen so far is kept with
+                    // equal probability
+                    best = v;
+                }
+            }
+            return best;
+        }
+    };
+
+    /**
+     * @param assignment Day offset assigned to each variable, or -1 if unassigned
+     * @param domains Current domain of each variable
+     * @param network Compiled constraints of the problem
+     * @param depth Number of variables assigned so far
+     * @param random Breaks ties uniformly at random, or null to break them
+     *        by lowest index
+     * @return The index of the next variable to assign
+     */
+    abstract int select (int[] assignment, DateDomain[] domains, ConstraintNetwork network, int depth,
+            Random random);
+
+}
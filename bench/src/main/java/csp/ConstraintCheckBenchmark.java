@@ -0,0 +1,95 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ConstraintCheckBenchmark: measures the per-check cost of the innermost
+ * solver operation, comparing the original String-switch over LocalDate
+ * operands against the compiled Operator over int day offsets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConstraintCheckBenchmark {
+
+    private static final int N = 1 << 16;
+    private static final String[] OPS = {"==", "!=", "<", "<=", ">", ">="};
+
+    private LocalDate[] leftDates, rightDates;
+    private String[] symbols;
+    private int[] leftDays, rightDays;
+    private Operator[] ops;
+
+    private static boolean legacyIsConsistent (LocalDate leftDate, LocalDate rightDate, String op) {
+        switch (op) {
+        case "==": return leftDate.isEqual(rightDate);
+        case "!=": return !leftDate.isEqual(rightDate);
+        case ">":  return leftDate.isAfter(rightDate);
+        case "<":  return leftDate.isBefore(rightDate);
+        case ">=": return leftDate.isAfter(rightDate) || leftDate.isEqual(rightDate);
+        default:   return leftDate.isBefore(rightDate) || leftDate.isEqual(rightDate);
+        }
+    }
+
+    @Setup
+    public void setUp () {
+        Random rnd = new Random(282);
+        LocalDate start = LocalDate.of(2019, 1, 1);
+        leftDates = new LocalDate[N];
+        rightDates = new LocalDate[N];
+        symbols = new String[N];
+        leftDays = new int[N];
+        rightDays = new int[N];
+        ops = new Operator[N];
+        for (int i = 0; i < N; i++) {
+            leftDays[i] = rnd.nextInt(730);
+            rightDays[i] = rnd.nextInt(730);
+            leftDates[i] = start.plusDays(leftDays[i]);
+            rightDates[i] = start.plusDays(rightDays[i]);
+            symbols[i] = OPS[rnd.nextInt(OPS.length)];
+            ops[i] = Operator.of(symbols[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public int legacy () {
+        int satisfied = 0;
+        for (int i = 0; i < N; i++) {
+            if (legacyIsConsistent(leftDates[i], rightDates[i], symbols[i])) {
+                satisfied++;
+            }
+        }
+        return satisfied;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(N)
+    public int compiled () {
+        int satisfied = 0;
+        for (int i = 0; i < N; i++) {
+            if (ops[i].test(leftDays[i], rightDays[i])) {
+                satisfied++;
+            }
+        }
+        return satisfied;
+    }
+
+}
@@ -0,0 +1,73 @@
+package csp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PropagationBenchmark: the phases of a solve in isolation over
+ * satisfiable InstanceGenerator instances: node and arc consistency from
+ * fresh domains, and checking every meeting of the hidden schedule against
+ * its constraints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropagationBenchmark {
+
+    @Param({"20", "100", "500"})
+    public int meetings;
+
+    @Param({"14", "90", "365"})
+    public int horizon;
+
+    @Param({"0.1", "0.3"})
+    public double density;
+
+    @Param({"MIXED", "ORDERING", "INEQUALITY"})
+    public InstanceGenerator.OperatorMix mix;
+
+    private ConstraintNetwork network;
+    private Propagator checker;
+    private int[] solution;
+
+    @Setup
+    public void setUp () {
+        CalendarProblem problem = InstanceGenerator.satisfiable(282, meetings, horizon, density, mix);
+        network = new ConstraintNetwork(problem.getMeetingCount(), problem.getRangeStart(),
+            problem.getRangeEnd(), problem.getConstraints());
+        solution = InstanceGenerator.schedule(282, meetings, horizon);
+        checker = new Propagator(network, CSP.makeDomains(network));
+    }
+
+    @Benchmark
+    public boolean consistency () {
+        Propagator propagator = new Propagator(network, CSP.makeDomains(network));
+        return propagator.nodeConsistency() && propagator.arcConsistency();
+    }
+
+    @Benchmark
+    public int constraintChecks () {
+        int consistent = 0;
+        for (int v = 0; v < solution.length; v++) {
+            if (checker.constraintCheck(v, solution)) {
+                consistent++;
+            }
+        }
+        return consistent;
+    }
+
+}
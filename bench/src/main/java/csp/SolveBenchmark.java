@@ -0,0 +1,64 @@
+package csp;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SolveBenchmark: end-to-end CSP.solve over satisfiable InstanceGenerator
+ * instances, across instance sizes, constraint densities, operator mixes
+ * and propagation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolveBenchmark {
+
+    @Param({"20", "100"})
+    public int meetings;
+
+    @Param({"14", "90"})
+    public int horizon;
+
+    @Param({"0.1", "0.3"})
+    public double density;
+
+    @Param({"MIXED", "ORDERING", "INEQUALITY"})
+    public InstanceGenerator.OperatorMix mix;
+
+    @Param({"FORWARD_CHECKING", "MAC"})
+    public Propagation propagation;
+
+    private CalendarProblem problem;
+    private SolverOptions options;
+
+    @Setup
+    public void setUp () {
+        problem = InstanceGenerator.satisfiable(282, meetings, horizon, density, mix);
+        options = new SolverOptions()
+            .setVariableOrder(VariableOrder.MRV)
+            .setPropagation(propagation);
+    }
+
+    @Benchmark
+    public List<LocalDate> solve () {
+        return CSP.solve(problem.getMeetingCount(), problem.getRangeStart(), problem.getRangeEnd(),
+            problem.getConstraints(), options);
+    }
+
+}